@@ -0,0 +1,53 @@
+package org.lwjgl.demo.opengl;
+
+import java.util.concurrent.TimeUnit;
+
+import org.lwjgl.demo.util.Color4D;
+import org.lwjgl.demo.util.MeshBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * CPU cost of generating the gear geometry. No GL context is needed, the buffers are never uploaded.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GearBenchmark {
+	@Param({ "10", "20", "30" })
+	private int teeth;
+
+	private GearsModel.Gear m_gear;
+	private MeshBuilder m_mesh;
+
+	@Setup
+	public void setup() {
+		m_gear = new GearsModel.Gear(1.0, 4.0, 1.0, teeth, 0.7, new Color4D(0.8f, 0.1f, 0.0f, 1.0f));
+		m_mesh = MeshBuilder.acquire();
+	}
+
+	@TearDown
+	public void tearDown() {
+		m_mesh.close();
+		MeshBuilder.freePool();
+	}
+
+	@Benchmark
+	public int build() {
+		m_gear.build(m_mesh);
+		return m_mesh.getVertexCount();
+	}
+}
@@ -0,0 +1,103 @@
+package org.lwjgl.demo.opengl;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.lwjgl.demo.util.Color4D;
+import org.lwjgl.demo.util.MeshBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Scaling of the concurrent build of the three gears of GearsModel (scaled to teeth, teeth/2 and
+ * teeth/2 teeth), one gear per task. threads = 0 is the sequential path. The setup checks that both
+ * paths produce the same positions, normals and indices.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GearParallelBenchmark {
+	@Param({ "1000", "10000" })
+	private int teeth;
+
+	@Param({ "0", "1", "2", "3" })
+	private int threads;
+
+	private GearsModel.Gear[] m_gears;
+	private final MeshBuilder[] m_meshes = new MeshBuilder[3];
+	private ForkJoinPool m_pool;
+
+	@Setup
+	public void setup() {
+		m_gears = new GearsModel.Gear[] {
+			new GearsModel.Gear(1.0, 4.0, 1.0, teeth, 0.7, new Color4D(0.8f, 0.1f, 0.0f, 1.0f)),
+			new GearsModel.Gear(0.5, 2.0, 2.0, teeth/2, 0.7, new Color4D(0.0f, 0.8f, 0.2f, 1.0f)),
+			new GearsModel.Gear(1.3, 2.0, 0.5, teeth/2, 0.7, new Color4D(0.2f, 0.2f, 1.0f, 1.0f))
+		};
+		for (int i = 0; i < m_meshes.length; i++) {
+			m_meshes[i] = MeshBuilder.acquire();
+		}
+		m_pool = (threads > 0) ? new ForkJoinPool(threads) : null;
+
+		// the concurrent build has to match the sequential one exactly
+		final MeshBuilder[] expected = new MeshBuilder[m_meshes.length];
+		try {
+			for (int i = 0; i < expected.length; i++) {
+				expected[i] = new MeshBuilder(1);
+			}
+			GearsModel.Gear.build(m_gears, expected, null);
+			GearsModel.Gear.build(m_gears, m_meshes, (m_pool != null) ? m_pool : ForkJoinPool.commonPool());
+			for (int i = 0; i < expected.length; i++) {
+				check(expected[i], m_meshes[i], i);
+			}
+		} finally {
+			for (MeshBuilder mesh : expected) {
+				if (mesh != null) mesh.free();
+			}
+		}
+	}
+
+	@TearDown
+	public void tearDown() {
+		if (m_pool != null) m_pool.shutdown();
+		for (MeshBuilder mesh : m_meshes) {
+			mesh.close();
+		}
+		MeshBuilder.freePool();
+	}
+
+	@Benchmark
+	public int build() {
+		GearsModel.Gear.build(m_gears, m_meshes, m_pool);
+		return m_meshes[0].getVertexCount() + m_meshes[1].getVertexCount() + m_meshes[2].getVertexCount();
+	}
+
+	// bit-exact, unlike FloatBuffer.equals, which treats 0.0 and -0.0 as equal
+	private static void check(MeshBuilder expected, MeshBuilder actual, int gear) {
+		final int vertices = expected.getVertexCount(), indices = expected.getIndexCount();
+		boolean equal = actual.getVertexCount() == vertices && actual.getIndexCount() == indices;
+		for (int i = 0; equal && i < vertices*3; i++) {
+			equal = Float.floatToRawIntBits(expected.getPositions().get(i)) == Float.floatToRawIntBits(actual.getPositions().get(i))
+				&& Float.floatToRawIntBits(expected.getNormals().get(i)) == Float.floatToRawIntBits(actual.getNormals().get(i));
+		}
+		for (int i = 0; equal && i < indices; i++) {
+			equal = expected.getIndices().get(i) == actual.getIndices().get(i);
+		}
+		if (!equal) {
+			throw new IllegalStateException("Gear " + (gear + 1) + " differs between the sequential and the concurrent build");
+		}
+	}
+}
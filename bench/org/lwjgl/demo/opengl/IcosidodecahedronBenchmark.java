@@ -0,0 +1,93 @@
+package org.lwjgl.demo.opengl;
+
+import java.util.concurrent.TimeUnit;
+
+import org.joml.Vector3f;
+import org.lwjgl.demo.util.Color4D;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Transform math executed by Icosidodecahedron.render() per frame. The draw calls are stubbed out:
+ * they only fold the current model matrix into a checksum.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IcosidodecahedronBenchmark {
+	@Param({ "0", "6" })
+	private int buildStep;		// 0: standard mode, 1..6: build mode
+
+	private StubModel m_model;
+	private final Vector3f m_normalSide = new Vector3f(0, 0, 1);
+	private final Vector3f m_p = new Vector3f(), m_t = new Vector3f(), m_o = new Vector3f(), m_r = new Vector3f();
+	private Vector3f m_pNormal, m_tNormal, m_oNormal, m_rNormal;
+
+	@Setup
+	public void setup() {
+		m_model = new StubModel();
+		m_model.buildStep = buildStep;
+		m_model._BUILD_MODE = buildStep > 0;
+		m_model._AXIS_ROTATION = buildStep == 0;
+
+		Vector3f[] o = m_model.getOctahedron_vertices();
+		Vector3f[] g = m_model.getGoldenRectangleVertices();
+		m_pNormal = m_model.calculateMiddlePoint(new Vector3f[] { g[1], g[0], g[16], o[2], g[17] });
+		m_tNormal = m_model.calculateMiddlePoint(new Vector3f[] { o[4], g[0], g[1] });
+		m_oNormal = m_model.calculateMiddlePoint(new Vector3f[] { o[4], o[0], o[2] });
+		m_rNormal = m_model.calculateMiddlePoint(new Vector3f[] { g[2], g[3], g[0], g[1] });
+	}
+
+	@Benchmark
+	public double placeSides() {
+		m_model.placeSides();
+		return m_model.checksum();
+	}
+
+	@Benchmark
+	public double generateSides() {
+		m_model.generateSides(m_model.PURPLE, m_model.DARK_GREEN, m_normalSide, m_p.set(m_pNormal), m_t.set(m_tNormal));
+		return m_model.checksum();
+	}
+
+	@Benchmark
+	public double stepBuilder() {
+		m_model.stepBuilder(6, m_normalSide, m_o.set(m_oNormal), m_r.set(m_rNormal), m_p.set(m_pNormal), m_t.set(m_tNormal));
+		return m_model.checksum();
+	}
+
+	@Benchmark
+	public Vector3f[] getGoldenRectangleVertices() {
+		return m_model.getGoldenRectangleVertices();
+	}
+
+	private static class StubModel extends Icosidodecahedron {
+		private double m_checksum;
+
+		@Override
+		void drawTriangle(Color4D color) {
+			m_checksum += M.m30() + M.m31() + M.m32() + color.a;
+		}
+
+		@Override
+		void drawPolygon(BaseSide side, Color4D color) {
+			m_checksum += M.m30() + M.m31() + M.m32() + color.a;
+		}
+
+		double checksum() {
+			return m_checksum;
+		}
+	}
+}
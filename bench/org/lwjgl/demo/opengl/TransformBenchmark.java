@@ -0,0 +1,61 @@
+package org.lwjgl.demo.opengl;
+
+import static org.joml.Math.PI;
+
+import java.nio.FloatBuffer;
+import java.util.concurrent.TimeUnit;
+
+import org.joml.Matrix3d;
+import org.joml.Matrix4x3d;
+import org.lwjgl.BufferUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Per-draw matrix work of drawGear(): the normal matrix of M, stored together with M in the std140
+ * layout of the Draw block (each column a vec4), as OGLModel3D.setDrawUniforms() writes it into the
+ * uniform ring. P and V are applied by the shaders.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransformBenchmark {
+	private static final double deg2rad = PI/180;
+
+	private final Matrix4x3d M = new Matrix4x3d();
+	private final Matrix3d m_normal = new Matrix3d();
+	private final FloatBuffer m_block = BufferUtils.createFloatBuffer(4*4 + 3*4 + 4);
+	private double m_angle;
+
+	@Benchmark
+	public FloatBuffer drawTransforms() {
+		M.translation(-3.0, -2.0, 0.0).rotateZ(m_angle*deg2rad);
+		m_angle += 2;
+
+		M.normal(m_normal);
+		putColumn(0, M.m00(), M.m01(), M.m02());
+		putColumn(4, M.m10(), M.m11(), M.m12());
+		putColumn(8, M.m20(), M.m21(), M.m22());
+		putColumn(12, M.m30(), M.m31(), M.m32());
+		putColumn(16, m_normal.m00(), m_normal.m01(), m_normal.m02());
+		putColumn(20, m_normal.m10(), m_normal.m11(), m_normal.m12());
+		putColumn(24, m_normal.m20(), m_normal.m21(), m_normal.m22());
+		return m_block;
+	}
+
+	private void putColumn(int index, double x, double y, double z) {
+		m_block.put(index + 0, (float)x);
+		m_block.put(index + 1, (float)y);
+		m_block.put(index + 2, (float)z);
+	}
+}
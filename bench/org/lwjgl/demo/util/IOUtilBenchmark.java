@@ -0,0 +1,82 @@
+package org.lwjgl.demo.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Resource loading through IOUtil, from the file system and from a jar on the class path:
+ * copied (ioResourceToByteBuffer), mapped (ioResourceMap) and through a ResourceCache.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IOUtilBenchmark {
+	private static final String CLASSPATH_RESOURCE = "org/joml/Matrix4d.class";
+
+	@Param({ "4096", "262144", "4194304" })
+	private int fileSize;
+
+	private Path m_file;
+	private ResourceCache m_cache;
+
+	@Setup
+	public void setup() throws IOException {
+		byte[] data = new byte[fileSize];
+		new Random(42).nextBytes(data);
+		m_file = Files.createTempFile("ioutil", ".bin");
+		Files.write(m_file, data);
+		m_cache = new ResourceCache(64L << 20);
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		Files.deleteIfExists(m_file);
+	}
+
+	@Benchmark
+	public ByteBuffer file() throws IOException {
+		return IOUtil.ioResourceToByteBuffer(m_file.toString(), 4096);
+	}
+
+	@Benchmark
+	public ByteBuffer classpath() throws IOException {
+		return IOUtil.ioResourceToByteBuffer(CLASSPATH_RESOURCE, 4096);
+	}
+
+	@Benchmark
+	public ByteBuffer fileMapped() throws IOException {
+		return IOUtil.ioResourceMap(m_file.toString());
+	}
+
+	@Benchmark
+	public ByteBuffer classpathMapped() throws IOException {
+		return IOUtil.ioResourceMap(CLASSPATH_RESOURCE);
+	}
+
+	@Benchmark
+	public int fileCached() throws IOException {
+		try (ResourceCache.Resource resource = m_cache.acquire(m_file.toString())) {
+			return resource.data().get(0);
+		}
+	}
+}
@@ -0,0 +1,91 @@
+package org.lwjgl.demo.util;
+
+import static org.lwjgl.opengl.GL11C.GL_TRIANGLES;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.joml.Matrix4x3d;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Recording and sorting a frame of draws in a RenderQueue: 8 objects (vertex arrays) at random
+ * positions, a quarter of the draws translucent. record only fills the queue, recordAndSort also
+ * radix-sorts it; the difference is the cost of the sort.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RenderQueueBenchmark {
+	@Param({ "100", "1000", "10000" })
+	private int draws;
+
+	private final OGLMesh[] m_objects = new OGLMesh[8];
+	private Matrix4x3d[] m_transforms;
+	private float[] m_alphas;
+	private final Matrix4x3d V = new Matrix4x3d().translation(0, 0, -50);
+	private final RenderQueue m_queue = new RenderQueue();
+
+	@Setup
+	public void setup() {
+		// unit cubes, prepared without a GL context; the vertex array names only go into the keys
+		try (MeshBuilder cube = MeshBuilder.acquire()) {
+			for (int v = 0; v < 8; v++) {
+				cube.vertex((v & 1) != 0 ? 1 : -1, (v & 2) != 0 ? 1 : -1, (v & 4) != 0 ? 1 : -1);
+			}
+			for (int o = 0; o < m_objects.length; o++) {
+				m_objects[o] = new OGLMesh(new Color4D(1, 1, 1, 1));
+				m_objects[o].prepareBuffers(cube);
+				m_objects[o].m_VAO = o + 1;
+			}
+		}
+
+		Random random = new Random(42);
+		m_transforms = new Matrix4x3d[draws];
+		m_alphas = new float[draws];
+		for (int i = 0; i < draws; i++) {
+			m_transforms[i] = new Matrix4x3d().translation(random.nextDouble()*80 - 40, random.nextDouble()*80 - 40, random.nextDouble()*80 - 40);
+			m_alphas[i] = (random.nextInt(4) == 0) ? 0.75f : 1;
+		}
+
+		record();	// grows the queue to its steady state size
+	}
+
+	@TearDown
+	public void tearDown() {
+		for (OGLMesh object : m_objects) {
+			object.m_VAO = 0;
+			object.dispose();
+		}
+	}
+
+	@Benchmark
+	public int record() {
+		m_queue.begin(V);
+		for (int i = 0; i < draws; i++) {
+			m_queue.add(m_objects[i & 7], GL_TRIANGLES, m_transforms[i], 1, 1, 1, m_alphas[i]);
+		}
+		return m_queue.getCount();
+	}
+
+	@Benchmark
+	public int recordAndSort() {
+		record();
+		m_queue.sort();
+		return m_queue.getDraw(0);
+	}
+}
@@ -0,0 +1,7 @@
+in vec4 v_Color;			// interpolated vertex color
+
+layout(location = 0) out vec4 out_Color;
+
+void main() {
+    out_Color = v_Color;
+}
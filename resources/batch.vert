@@ -0,0 +1,11 @@
+uniform mat4 u_MVP;		// model-view-projection of the whole batch
+
+layout(location = 0) in vec3 in_Position;	// vertex position
+layout(location = 1) in vec4 in_Color;		// vertex color
+
+out vec4 v_Color;
+
+void main() {
+    v_Color = in_Color;
+    gl_Position = u_MVP*vec4(in_Position, 1.0);
+}
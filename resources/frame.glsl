@@ -0,0 +1,6 @@
+// per-frame uniforms, prepended to every shader by OGLModel3D and updated once per frame
+layout(std140) uniform Frame {
+    mat4 u_P;				// projection
+    mat4x3 u_V;				// view
+    vec3 u_LIGHT;			// light direction in view space
+};
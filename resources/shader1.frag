@@ -1,12 +1,16 @@
-uniform vec4 u_COLOR;		// the same color for all fragments of a model
+#ifdef DRAW_BLOCK
+    layout(std140) uniform Draw {	// the same block as in the vertex shader
+        mat4x3 u_M;
+        mat3 u_MN;
+        vec4 u_COLOR;		// the same color for all fragments of a model
+    };
+#else
+    uniform vec4 u_COLOR;	// the same color for all fragments of a model
+#endif
 
 in float v_Shade;			// shade of a fragment
 
-#if __VERSION__ < 330
-    out vec4 out_Color;		// resulting pixel color
-#else
-    layout(location = 0) out vec4 out_Color;
-#endif
+layout(location = 0) out vec4 out_Color;	// resulting pixel color
 
 void main() {
     out_Color = vec4(u_COLOR.xyz*v_Shade, u_COLOR.w);
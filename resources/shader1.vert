@@ -1,19 +1,22 @@
-uniform mat4 u_PVM;			// the same geometric transforms for all vertices of a model
-uniform mat3 u_VM;
-uniform vec3 u_LIGHT;
-
-#if __VERSION__ < 330
-    in vec3 in_Position;	// vertex position
-    in vec3 in_Normal;		// vertex normal
+#ifdef DRAW_BLOCK
+    layout(std140) uniform Draw {	// per draw, streamed through OGLUniformRing
+        mat4x3 u_M;			// the same geometric transforms for all vertices of a model
+        mat3 u_MN;			// normal transform of the model
+        vec4 u_COLOR;
+    };
 #else
-    layout(location = 0) in vec3 in_Position;
-    layout(location = 1) in vec3 in_Normal;
+    uniform mat4x3 u_M;		// the same geometric transforms for all vertices of a model
+    uniform mat3 u_MN;
 #endif
+uniform float u_POSITION_SCALE;	// 1, except for normalized integer positions
+
+layout(location = 0) in vec3 in_Position;	// vertex position
+layout(location = 1) in vec3 in_Normal;		// vertex normal
 
 out float v_Shade;			// for each vertex, needed in fragment shader
 
 void main() {
-    vec3 normal = normalize(u_VM*in_Normal);
+    vec3 normal = normalize(mat3(u_V)*(u_MN*in_Normal));
     v_Shade = max(dot(normal, u_LIGHT), 0.0);
-    gl_Position = u_PVM*vec4(in_Position, 1.0);
+    gl_Position = u_P*vec4(u_V*vec4(u_M*vec4(in_Position*u_POSITION_SCALE, 1.0), 1.0), 1.0);
 }
@@ -0,0 +1,17 @@
+uniform float u_POSITION_SCALE;	// 1, except for normalized integer positions
+
+layout(location = 0) in vec3 in_Position;	// vertex position
+layout(location = 1) in vec3 in_Normal;		// vertex normal
+layout(location = 2) in mat4x3 i_Model;		// per instance: model transform
+layout(location = 6) in mat3 i_Normal;		// per instance: normal transform of the model
+layout(location = 9) in vec4 i_Color;		// per instance: color
+
+out float v_Shade;			// for each vertex, needed in fragment shader
+out vec4 v_Color;
+
+void main() {
+    vec3 normal = normalize(mat3(u_V)*(i_Normal*in_Normal));
+    v_Shade = max(dot(normal, u_LIGHT), 0.0);
+    v_Color = i_Color;
+    gl_Position = u_P*vec4(u_V*vec4(i_Model*vec4(in_Position*u_POSITION_SCALE, 1.0), 1.0), 1.0);
+}
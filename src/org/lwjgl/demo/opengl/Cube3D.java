@@ -7,19 +7,14 @@ import static org.lwjgl.opengl.GL11.*;
 import static org.lwjgl.opengl.GL11C.GL_COLOR_BUFFER_BIT;
 import static org.lwjgl.opengl.GL11C.GL_DEPTH_BUFFER_BIT;
 import static org.lwjgl.opengl.GL11C.glClear;
-import static org.lwjgl.opengl.GL11C.glDrawArrays;
 import static org.lwjgl.opengl.GL15C.GL_SRC1_ALPHA;
-import static org.lwjgl.opengl.GL20C.glUniform3fv;
-import static org.lwjgl.opengl.GL20C.glUniform4fv;
-import static org.lwjgl.opengl.GL20C.glUniformMatrix3fv;
-import static org.lwjgl.opengl.GL20C.glUniformMatrix4fv;
 
 import java.nio.FloatBuffer;
 
-import org.joml.Matrix3d;
 import org.joml.Vector3d;
 import org.lwjgl.BufferUtils;
 import org.lwjgl.demo.util.Color4D;
+import org.lwjgl.demo.util.MeshBuilder;
 import org.lwjgl.demo.util.OGLApp;
 import org.lwjgl.demo.util.OGLModel3D;
 import org.lwjgl.demo.util.OGLObject;
@@ -54,21 +49,17 @@ class CubeModel extends OGLModel3D {
 	private final float OPACITY_INSIDE = 1f;
 
 
-	private final Matrix3d m_vm = new Matrix3d();
 	private final Vector3d m_light  = new Vector3d();
 	private final FloatBuffer m_vec3f = BufferUtils.createFloatBuffer(3);
-	private final FloatBuffer m_mat3f = BufferUtils.createFloatBuffer(3*3);
-	private final FloatBuffer m_mat4f = BufferUtils.createFloatBuffer(4*4);
 
 	private Side m_side;
-    private double m_startTime = System.currentTimeMillis()/1000.0;
+	private int m_sidesScope;			// GPU profiler scope
     private double m_distance = 10.0f;	// camera distance
     private double m_dxAngle = 0;		// degrees
     private double m_dyAngle = 0; 		// degrees
     private double m_xAngle = 0;		// degrees
     private double m_yAngle = 0;		// degrees
     private double m_zAngle = 0;		// degrees
-    private long   m_count;				// fps
 
 	@Override
 	public void init(int width, int height) {
@@ -76,6 +67,7 @@ class CubeModel extends OGLModel3D {
 		glBlendFunc(GL_SRC_ALPHA, GL_ONE_MINUS_SRC_ALPHA);
 		super.init(width, height);
 		m_side = new Side(new Color4D(0, 0, 0, 1));
+		m_sidesScope = m_profiler.scope("sides");
 	}
 
 	@Override
@@ -85,65 +77,66 @@ class CubeModel extends OGLModel3D {
         // VIEW
         V.translation(0.0, 0.0, -m_distance).rotateX(m_xAngle*deg2rad).rotateY(m_yAngle*deg2rad).rotateZ(m_zAngle*deg2rad); // V = T*Rx*Ry*Rz
 
-        // LIGHT
-        glUniform3fv(u_LIGHT, m_light.set(0.0, 0.0, 10.0).normalize().get(m_vec3f)); // V*m_light
+        // LIGHT, uploaded together with P and V once per frame
+        setFrameUniforms(m_light.set(0.0, 0.0, 10.0).normalize().get(m_vec3f)); // V*m_light
 
 		//inside
 		//front
 		M.rotationY(Math.PI).translate(0, 0, -1);
-		drawSide(m_side.setRGBA(1, 0, 0, OPACITY_INSIDE));
+		addSide(1, 0, 0, OPACITY_INSIDE);
 		//back
 		M.translation(0, 0, -1);
-		drawSide(m_side.setRGBA(0, 1, 1, OPACITY_INSIDE));
+		addSide(0, 1, 1, OPACITY_INSIDE);
 		//right
 		M.rotationY(-Math.PI/2).translate(0, 0, -1);
-		drawSide(m_side.setRGBA(1, 1, 0, OPACITY_INSIDE));
+		addSide(1, 1, 0, OPACITY_INSIDE);
 		//left
 		M.rotationY(Math.PI/2).translate(0, 0, -1);
-		drawSide(m_side.setRGBA(0, 0, 1, OPACITY_INSIDE));
+		addSide(0, 0, 1, OPACITY_INSIDE);
 		//top
 		M.rotationX(Math.PI/2).translate(0, 0, -1);
-		drawSide(m_side.setRGBA(0, 1, 0, OPACITY_INSIDE));
+		addSide(0, 1, 0, OPACITY_INSIDE);
 		//bottom
 		M.rotationX(-Math.PI/2).translate(0, 0, -1);
-		drawSide(m_side.setRGBA(0, 1, 0, OPACITY_OUTSIDE));
+		addSide(0, 1, 0, OPACITY_OUTSIDE);
 
 
 		//outside
 		// front
 		M.translation(0, 0, 1); // translation = identity.translate
-		drawSide(m_side.setRGBA(1, 0, 0, OPACITY_OUTSIDE));
+		addSide(1, 0, 0, OPACITY_OUTSIDE);
 		// back
 		M.rotationY(Math.PI).translate(0, 0, 1);
-		drawSide(m_side.setRGBA(0, 1, 1, OPACITY_OUTSIDE));
+		addSide(0, 1, 1, OPACITY_OUTSIDE);
 		// right
 		M.rotationY(Math.PI/2).translate(0, 0, 1); // M = Ry*T
-		drawSide(m_side.setRGBA(1, 1, 0, OPACITY_OUTSIDE));
+		addSide(1, 1, 0, OPACITY_OUTSIDE);
 		// left
 	    M.rotationY(-Math.PI/2).translate(0, 0, 1);
-		drawSide(m_side.setRGBA(0, 0, 1, OPACITY_OUTSIDE));
+		addSide(0, 0, 1, OPACITY_OUTSIDE);
 		// top
 		M.rotationX(-Math.PI/2).translate(0, 0, 1);
-		drawSide(m_side.setRGBA(1, 0, 1, OPACITY_OUTSIDE));
+		addSide(1, 0, 1, OPACITY_OUTSIDE);
 		// bottom
 		M.rotationX(Math.PI/2).translate(0, 0, 1);
-		drawSide(m_side.setRGBA(0, 1, 0, OPACITY_OUTSIDE));
-
-	    // fps
-        m_count++;
-
-        double theTime = System.currentTimeMillis()/1000.0;
-        if (theTime >= m_startTime + 1.0) {
-            System.out.format("%d fps\n", m_count); // falls die fps zu hoch sind: https://www.khronos.org/opengl/wiki/Swap_Interval#In_Windows
-            m_startTime = theTime;
-            m_count = 0;
-        }
-        
+		addSide(0, 1, 0, OPACITY_OUTSIDE);
+
+		// opaque inside first, then the translucent outside from back to front
+		m_profiler.begin(m_sidesScope);
+		drawQueue();
+		m_profiler.end();
+
         // animation
         m_xAngle -= m_dxAngle;
         m_yAngle -= m_dyAngle;
 	}
 	
+	@Override
+	public void dispose() {
+		m_side.dispose();
+		super.dispose();
+	}
+
 	public void changeXangle(double delta) {
 		m_dxAngle += delta;
 	}
@@ -152,63 +145,27 @@ class CubeModel extends OGLModel3D {
 		m_dyAngle += delta;
 	}
 	
-	private void drawSide(Side side) {
-		// set geometric transformation matrices for all vertices of this model
-        glUniformMatrix3fv(u_VM, false, V.mul(M, VM).normal(m_vm).get(m_mat3f));
-        glUniformMatrix4fv(u_PVM, false, P.mul(VM, PVM).get(m_mat4f)); // get: stores in and returns m_mat4f
-        
-        // set color for all vertices of this model
-        glUniform4fv(u_COLOR, side.getColor());
-
-        // draw a quad
-        side.setupPositions(m_POSITIONS);	
-        side.setupNormals(m_NORMALS);
-        glDrawArrays(GL_TRIANGLE_STRIP, 0, side.getVertexCount());
-    }
+	private void addSide(float r, float g, float b, float a) {
+		// the side is drawn later together with all other sides, sorted by drawQueue()
+		m_queue.add(m_side, GL_TRIANGLE_STRIP, M, r, g, b, a);
+	}
 
     private static class Side extends OGLObject {
-    	final static int CoordinatesPerVertex = 3;
-    	
 		protected Side(Color4D color) {
 			super(color);
         	
-			final int nVertices = 4;
-			final int nCoordinates = nVertices*CoordinatesPerVertex;
-			
-			// allocate vertex positions and normals
-            allocatePositionBuffer(nCoordinates);
-            allocateNormalBuffer(nCoordinates);
-            
-            // GL_TRIANGLE_STRIP because GL_QUADS are deprecated
-            addVertex(-1, +1, 0);
-            addVertex(-1, -1, 0);
-            addVertex(+1, +1, 0);
-            addVertex(+1, -1, 0);
-            
-            // bind vertex positions and normals
-            bindPositionBuffer();           
-            bindNormalBuffer();           
+			try (MeshBuilder mesh = MeshBuilder.acquire()) {
+				// GL_TRIANGLE_STRIP because GL_QUADS are deprecated
+				mesh.normal(0, 0, 1);
+				mesh.vertex(-1, +1, 0);
+				mesh.vertex(-1, -1, 0);
+				mesh.vertex(+1, +1, 0);
+				mesh.vertex(+1, -1, 0);
+
+				// upload vertex positions and normals
+				bindBuffers(mesh);
+			}
 		}
-    	
-        private void addVertex(float x, float y, float z) {
-            m_positions.put(m_vertexCount*CoordinatesPerVertex + 0, x);
-            m_positions.put(m_vertexCount*CoordinatesPerVertex + 1, y);
-            m_positions.put(m_vertexCount*CoordinatesPerVertex + 2, z);
-
-            m_normals.put(m_vertexCount*CoordinatesPerVertex + 0, 0);
-            m_normals.put(m_vertexCount*CoordinatesPerVertex + 1, 0);
-            m_normals.put(m_vertexCount*CoordinatesPerVertex + 2, 1);
-
-            m_vertexCount++;
-        }
-        
-        public Side setRGBA(float r, float g, float b, float a) {
-        	m_color.put(0, r);
-        	m_color.put(1, g);
-        	m_color.put(2, b);
-        	m_color.put(3, a);
-        	return this;
-        }
     }
 
 }
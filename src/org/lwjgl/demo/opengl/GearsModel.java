@@ -0,0 +1,301 @@
+package org.lwjgl.demo.opengl;
+
+import static org.joml.Math.PI;
+import static org.joml.Math.cos;
+import static org.joml.Math.sin;
+import static org.joml.Math.sqrt;
+import static org.lwjgl.opengl.GL11C.GL_COLOR_BUFFER_BIT;
+import static org.lwjgl.opengl.GL11C.GL_DEPTH_BUFFER_BIT;
+import static org.lwjgl.opengl.GL11C.GL_TRIANGLES;
+import static org.lwjgl.opengl.GL11C.glClear;
+
+import java.nio.FloatBuffer;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import org.joml.Matrix4x3d;
+import org.joml.Vector3d;
+import org.lwjgl.BufferUtils;
+import org.lwjgl.demo.util.Color4D;
+import org.lwjgl.demo.util.MeshBuilder;
+import org.lwjgl.demo.util.OGLModel3D;
+import org.lwjgl.demo.util.OGLObject;
+
+class GearsModel extends OGLModel3D {
+	final static double deg2rad = PI/180;
+
+	private final Vector3d m_light  = new Vector3d();
+	private final FloatBuffer m_vec3f = BufferUtils.createFloatBuffer(3);
+
+	private Gear m_gear1, m_gear2, m_gear3;
+	private int m_scope1, m_scope2, m_scope3;	// GPU profiler scopes
+	private final Matrix4x3d m_model1 = new Matrix4x3d(), m_model2 = new Matrix4x3d(), m_model3 = new Matrix4x3d();
+    private double m_distance = 40.0f;	// camera distance
+    private double m_angle;				// degrees
+    private double m_deltaDeg =  2; 	// degrees
+    private double m_xAngle = 70;		// degrees
+
+	@Override
+	public void init(int width, int height) {
+		super.init(width, height);
+        m_gear1 = new Gear(1.0, 4.0, 1.0, 20, 0.7, new Color4D(0.8f, 0.1f, 0.0f, 1.0f));
+        m_gear2 = new Gear(0.5, 2.0, 2.0, 10, 0.7, new Color4D(0.0f, 0.8f, 0.2f, 1.0f));
+        m_gear3 = new Gear(1.3, 2.0, 0.5, 10, 0.7, new Color4D(0.2f, 0.2f, 1.0f, 1.0f));
+        Gear.bindAll(ForkJoinPool.commonPool(), m_gear1, m_gear2, m_gear3);
+        m_scope1 = m_profiler.scope("gear 1");
+        m_scope2 = m_profiler.scope("gear 2");
+        m_scope3 = m_profiler.scope("gear 3");
+	}
+
+	@Override
+	public void render() {
+        glClear(GL_COLOR_BUFFER_BIT | GL_DEPTH_BUFFER_BIT);
+
+        // VIEW
+        V.translation(0.0, 0.0, -m_distance)
+         .rotateX(m_xAngle*deg2rad)
+         .rotateY(0.0f*deg2rad);
+        //V.rotateZ(45.0f*deg2rad);
+
+        // LIGHT, uploaded together with P and V once per frame
+        setFrameUniforms(V.transformDirection(m_light.set(5.0, 5.0, 10.0)).normalize().get(m_vec3f)); // V*m_light
+
+        // GEAR 1 (model 1)
+        m_model1.translation(-3.0, -2.0, 0.0)
+         .rotateZ(m_angle*deg2rad);
+
+        // GEAR 2 (model 2)
+        m_model2.translation(3.1, -2.0, 0.0)
+         .rotateZ((-2.0*m_angle - 9.0)*deg2rad);
+
+        // GEAR 3 (model 3)
+        m_model3.translation(-3.1, 4.2, 0.0)
+         .rotateZ((-2.0*m_angle - 25.0)*deg2rad);
+
+        // gears outside the frustum are not drawn; each keeps its own profiler scope
+        m_frustum.clear();
+        m_frustum.add(m_gear1, m_model1);
+        m_frustum.add(m_gear2, m_model2);
+        m_frustum.add(m_gear3, m_model3);
+        m_frustum.cull();
+
+        drawGear(0, m_gear1, m_model1, m_scope1);
+        drawGear(1, m_gear2, m_model2, m_scope2);
+        drawGear(2, m_gear3, m_model3, m_scope3);
+
+        // animation
+        m_angle += m_deltaDeg;
+	}
+	
+	@Override
+	public void dispose() {
+		m_gear1.dispose();
+		m_gear2.dispose();
+		m_gear3.dispose();
+		super.dispose();
+	}
+
+	public void changeSpeed(double delta) {
+		m_deltaDeg += delta;
+	}
+	
+	public void changeXangle(double delta) {
+		m_xAngle += delta;
+	}
+
+	// gear i of the culled batch
+	private void drawGear(int i, Gear gear, Matrix4x3d model, int scope) {
+        m_profiler.begin(scope);
+        if (m_frustum.isVisible(i)) {
+            // the shaders combine M with P and V of the frame
+            M.set(model);
+            setDrawUniforms(gear.getColor());
+
+            setupObject(gear);
+            gear.draw(GL_TRIANGLES);
+        }
+        m_profiler.end();
+    }
+
+    static class Gear extends OGLObject {
+        private final double m_innerRadius, m_outerRadius, m_width, m_toothDepth;
+        private final int m_teeth;
+        private double[] m_cos, m_sin;	// tooth angles a, a + da, a + 2*da, a + 3*da, 4 entries per tooth
+        private int m_tableTeeth;
+        
+        // build() does not need a GL context (used by benchmarks), bindAll() binds the buffers
+        Gear(double innerRadius, double outerRadius, double width, int teeth, double toothDepth, Color4D color) {
+        	super(color);
+        	m_innerRadius = innerRadius;
+        	m_outerRadius = outerRadius;
+        	m_width = width;
+        	m_teeth = teeth;
+        	m_toothDepth = toothDepth;
+        }
+
+        /**
+         * Builds the geometry of the gears concurrently on pool and binds their buffers on this thread.
+         */
+        static void bindAll(ForkJoinPool pool, Gear... gears) {
+            final MeshBuilder[] meshes = new MeshBuilder[gears.length];
+            try {
+                for (int i = 0; i < gears.length; i++) {
+                    meshes[i] = MeshBuilder.acquire();
+                }
+                build(gears, meshes, pool);
+                for (int i = 0; i < gears.length; i++) {
+                    gears[i].bindBuffers(meshes[i]);
+                }
+            } finally {
+                for (MeshBuilder mesh : meshes) {
+                    if (mesh != null) mesh.close();
+                }
+            }
+        }
+
+        /**
+         * Builds gears[i] into meshes[i], one gear per task on pool or one after another if pool is null.
+         * Every gear is built by the same sequential code, so the meshes do not depend on the pool.
+         */
+        static void build(Gear[] gears, MeshBuilder[] meshes, ForkJoinPool pool) {
+            if (pool == null) {
+                for (int i = 0; i < gears.length; i++) {
+                    gears[i].build(meshes[i]);
+                }
+                return;
+            }
+            final ForkJoinTask<?>[] tasks = new ForkJoinTask<?>[gears.length];
+            for (int i = 0; i < gears.length; i++) {
+                final Gear gear = gears[i];
+                final MeshBuilder mesh = meshes[i];
+                tasks[i] = pool.submit(() -> gear.build(mesh));
+            }
+            for (ForkJoinTask<?> task : tasks) {
+                task.join();
+            }
+        }
+
+        /**
+         * Replaces the content of mesh with the indexed gear geometry.
+         */
+        void build(MeshBuilder mesh) {
+            fill(mesh);
+
+            /* Emulate glShadeModel(GL_SMOOTH) for inside radius cylinder */
+            mesh.smoothNormals(INNER*m_teeth, 6*m_teeth, 180);
+
+            /* share equal vertices and reorder the triangles for the post-transform vertex cache */
+            mesh.indexTriangles();
+        }
+
+        // first vertex of each part of the unindexed gear, in units of teeth (6 vertices per quad)
+        private static final int
+            FRONT_FACE  = 0,	// 2 quads per tooth
+            FRONT_TEETH = 12,	// 1 quad per tooth
+            BACK_FACE   = 18,	// 2 quads per tooth
+            BACK_TEETH  = 30,	// 1 quad per tooth
+            OUTWARD     = 36,	// 4 quads per tooth, 3 of the first tooth, 1 closing quad
+            INNER       = 60,	// 1 quad per tooth
+            TOTAL       = 66;
+
+        /**
+         * Writes the unindexed triangles; each tooth fills its own disjoint slices of mesh.
+         */
+        void fill(MeshBuilder mesh) {
+            final int teeth = m_teeth;
+            final double r0 = m_innerRadius;
+            final double r1 = m_outerRadius - m_toothDepth/2.0;
+            final double r2 = m_outerRadius + m_toothDepth/2.0;
+
+            computeTable(teeth);
+            mesh.clear().resize(TOTAL*teeth);
+            for (int i = 0; i < teeth; i++) {
+                fillTooth(mesh, i, r0, r1, r2, m_width, teeth);
+            }
+        }
+
+        // the angles are computed exactly like in the original per-vertex code, so the values are identical
+        private void computeTable(int teeth) {
+            if (m_tableTeeth == teeth) return;
+
+            final double da = 2.0*PI/teeth/4.0;
+            m_cos = new double[(teeth + 1)*4];
+            m_sin = new double[(teeth + 1)*4];
+            for (int i = 0; i <= teeth; i++) {
+                final double angle = i*2.0*PI/teeth;
+                for (int k = 0; k < 4; k++) {
+                    final double a = (k == 0) ? angle : angle + k*da;
+                    m_cos[i*4 + k] = cos(a);
+                    m_sin[i*4 + k] = sin(a);
+                }
+            }
+            m_tableTeeth = teeth;
+        }
+
+        private void fillTooth(MeshBuilder mesh, int i, double r0, double r1, double r2, double width, int teeth) {
+            final double[] c = m_cos, s = m_sin;
+            final int t = i*4, n = (i + 1)*4;	// this and the next tooth
+            final double front = width*0.5, back = -width*0.5;
+
+            /* front face */
+            int v = FRONT_FACE*teeth + 12*i;
+            quad(mesh, v,      r0*c[t], r0*s[t], front,  r1*c[t], r1*s[t], front,  r0*c[t], r0*s[t], front,  r1*c[t + 3], r1*s[t + 3], front,  0.0, 0.0, 1.0);
+            quad(mesh, v + 6,  r0*c[t], r0*s[t], front,  r1*c[t + 3], r1*s[t + 3], front,  r0*c[n], r0*s[n], front,  r1*c[n], r1*s[n], front,  0.0, 0.0, 1.0);
+
+            /* front sides of teeth */
+            v = FRONT_TEETH*teeth + 6*i;
+            quad(mesh, v,      r1*c[t], r1*s[t], front,  r2*c[t + 1], r2*s[t + 1], front,  r1*c[t + 3], r1*s[t + 3], front,  r2*c[t + 2], r2*s[t + 2], front,  0.0, 0.0, 1.0);
+
+            /* back face */
+            v = BACK_FACE*teeth + 12*i;
+            quad(mesh, v,      r1*c[t], r1*s[t], back,  r0*c[t], r0*s[t], back,  r1*c[t + 3], r1*s[t + 3], back,  r0*c[t], r0*s[t], back,  0.0, 0.0, -1.0);
+            quad(mesh, v + 6,  r1*c[t + 3], r1*s[t + 3], back,  r0*c[t], r0*s[t], back,  r1*c[n], r1*s[n], back,  r0*c[n], r0*s[n], back,  0.0, 0.0, -1.0);
+
+            /* back sides of teeth */
+            v = BACK_TEETH*teeth + 6*i;
+            quad(mesh, v,      r1*c[t + 3], r1*s[t + 3], back,  r2*c[t + 2], r2*s[t + 2], back,  r1*c[t], r1*s[t], back,  r2*c[t + 1], r2*s[t + 1], back,  0.0, 0.0, -1.0);
+
+            /* outward faces of teeth: one strip, the quad between two teeth belongs to the second one */
+            v = OUTWARD*teeth + ((i == 0) ? 0 : 18 + 24*(i - 1));
+            if (i > 0) {
+                final int p = t - 4;
+                quad(mesh, v,  r1*c[p + 3], r1*s[p + 3], front,  r1*c[p + 3], r1*s[p + 3], back,  r1*c[t], r1*s[t], front,  r1*c[t], r1*s[t], back,  c[p], s[p], 0.0);
+                v += 6;
+            }
+            double u = r2*c[t + 1] - r1*c[t];
+            double w = r2*s[t + 1] - r1*s[t];
+            final double len = sqrt(u*u + w*w);
+            u /= len;
+            w /= len;
+            quad(mesh, v,      r1*c[t], r1*s[t], front,  r1*c[t], r1*s[t], back,  r2*c[t + 1], r2*s[t + 1], front,  r2*c[t + 1], r2*s[t + 1], back,  w, -u, 0.0);
+            quad(mesh, v + 6,  r2*c[t + 1], r2*s[t + 1], front,  r2*c[t + 1], r2*s[t + 1], back,  r2*c[t + 2], r2*s[t + 2], front,  r2*c[t + 2], r2*s[t + 2], back,  c[t], s[t], 0.0);
+            u = r1*c[t + 3] - r2*c[t + 2];
+            w = r1*s[t + 3] - r2*s[t + 2];
+            quad(mesh, v + 12, r2*c[t + 2], r2*s[t + 2], front,  r2*c[t + 2], r2*s[t + 2], back,  r1*c[t + 3], r1*s[t + 3], front,  r1*c[t + 3], r1*s[t + 3], back,  w, -u, 0.0);
+            if (i == teeth - 1) {
+                // closing quad back to the first tooth (angle 0)
+                quad(mesh, v + 18, r1*c[t + 3], r1*s[t + 3], front,  r1*c[t + 3], r1*s[t + 3], back,  r1*c[0], r1*s[0], front,  r1*c[0], r1*s[0], back,  c[t], s[t], 0.0);
+            }
+
+            /* inside radius cylinder, the last quad ends at angle 0 instead of 2*PI to get identical positions for smoothing */
+            v = INNER*teeth + 6*i;
+            final int e = (i + 1 == teeth) ? 0 : n;
+            quad(mesh, v,      r0*c[t], r0*s[t], back,  r0*c[t], r0*s[t], front,  r0*c[e], r0*s[e], back,  r0*c[e], r0*s[e], front,  -c[e], -s[e], 0.0);
+        }
+
+        // two triangles q0 q1 q2 and q2 q1 q3, like the quad strips of the original code
+        private static void quad(MeshBuilder mesh, int v,
+                double x0, double y0, double z0, double x1, double y1, double z1,
+                double x2, double y2, double z2, double x3, double y3, double z3,
+                double nx, double ny, double nz) {
+            final float fx = (float)nx, fy = (float)ny, fz = (float)nz;
+            mesh.setVertex(v + 0, (float)x0, (float)y0, (float)z0, fx, fy, fz);
+            mesh.setVertex(v + 1, (float)x1, (float)y1, (float)z1, fx, fy, fz);
+            mesh.setVertex(v + 2, (float)x2, (float)y2, (float)z2, fx, fy, fz);
+            mesh.setVertex(v + 3, (float)x2, (float)y2, (float)z2, fx, fy, fz);
+            mesh.setVertex(v + 4, (float)x1, (float)y1, (float)z1, fx, fy, fz);
+            mesh.setVertex(v + 5, (float)x3, (float)y3, (float)z3, fx, fy, fz);
+        }
+    }
+	
+}
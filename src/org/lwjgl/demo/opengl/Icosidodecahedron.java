@@ -0,0 +1,733 @@
+package org.lwjgl.demo.opengl;
+
+
+import org.joml.Math;
+import org.joml.Matrix4x3d;
+import org.joml.Vector3d;
+import org.joml.Vector3f;
+import org.lwjgl.BufferUtils;
+import org.lwjgl.demo.util.Color4D;
+import org.lwjgl.demo.util.MeshBuilder;
+import org.lwjgl.demo.util.OGLModel3D;
+import org.lwjgl.demo.util.OGLObject;
+import org.lwjgl.demo.util.PrimitiveBatcher;
+
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+
+import static org.joml.Math.PI;
+import static org.lwjgl.opengl.GL11C.GL_BLEND;
+import static org.lwjgl.opengl.GL11C.GL_ONE_MINUS_SRC_ALPHA;
+import static org.lwjgl.opengl.GL11C.GL_SRC_ALPHA;
+import static org.lwjgl.opengl.GL11C.glBlendFunc;
+import static org.lwjgl.opengl.GL11C.glEnable;
+import static org.lwjgl.opengl.GL11C.GL_COLOR_BUFFER_BIT;
+import static org.lwjgl.opengl.GL11C.GL_DEPTH_BUFFER_BIT;
+import static org.lwjgl.opengl.GL11C.GL_LINES;
+import static org.lwjgl.opengl.GL11C.GL_TRIANGLES;
+import static org.lwjgl.opengl.GL11C.glClear;
+
+
+class Icosidodecahedron extends OGLModel3D {
+    // configuration parameters
+    // length of one Icosidodecahedron edge of the meshes and face tables; the displayed size is m_scale
+    final static float _s = 1f;
+    // Phi (golden ratio)
+    final static float _phi = (float) ((1 + Math.sqrt(5)) / 2);
+    // Phi with factor of length (use this in calculations of vertices)
+    final static float s_phi = _s * _phi;
+
+
+    // Buildmode
+    boolean _AXIS_ROTATION = true;
+    boolean _BUILD_MODE = false;
+    int buildStep = 0;
+
+
+    final static double deg2rad = PI / 180;
+
+
+    private final Vector3d m_light = new Vector3d();
+    private final FloatBuffer m_vec3f = BufferUtils.createFloatBuffer(3);
+
+    private Triangle triangle;
+    private Pentagon pentagon;
+    private Rectangle rectangle;
+    private PrimitiveBatcher m_axes;    // X-, Y- und Z-Achse
+    // Vorberechnete Seiten pro Modus: [0] Standard, [1 + buildStep] Build-Mode. Sie bleiben auch beim Skalieren gültig.
+    private final FaceTable[] m_faceTables = new FaceTable[8];
+    private FaceTable m_faces;    // Tabelle, in die gerade aufgezeichnet wird
+    private final Matrix4x3d m_faceModel = new Matrix4x3d();
+    private float m_scale = 1;    // Kantenlänge, wird als Faktor in V angewendet (die Meshes haben Kantenlänge _s)
+    private double m_distance = 15.0f;    // camera distance
+    private double m_dxAngle = 0;        // degrees
+
+    public void setM_dxAngle(double m_dxAngle) {
+        this.m_dxAngle = m_dxAngle;
+    }
+
+    public void setM_dyAngle(double m_dyAngle) {
+        this.m_dyAngle = m_dyAngle;
+    }
+
+    private double m_dyAngle = 0;        // degrees
+    private double m_xAngle = 0;        // degrees
+    private double m_yAngle = 0;        // degrees
+    private double m_zAngle = 0;        // degrees
+
+
+    // colors
+    final Color4D PURPLE = new Color4D(0.62f, 0.12f, 0.94f, 1);
+    final Color4D DARK_GREEN = new Color4D(0.15f, 0.56f, 0.5f, 1);
+    final Color4D PURPLE_TRANSPARENT = new Color4D(0.62f, 0.12f, 0.94f, 0.75f);
+    final Color4D DARK_GREEN_TRANSPARENT = new Color4D(0.15f, 0.56f, 0.5f, 0.75f);
+
+    final Color4D BLUE = new Color4D(0, 0, 1, 1);
+    final Color4D PINK = new Color4D(1, 0.6f, 0.6f, 1);
+    final Color4D GREEN = new Color4D(0, 0.4f, 0, 1);
+    final Color4D YELLOW = new Color4D(1, 1, 0, 1);
+    final Color4D BLACK = new Color4D(0, 0, 0, 1);
+
+
+    @Override
+    public void init(int width, int height) {
+        glEnable(GL_BLEND);
+        glBlendFunc(GL_SRC_ALPHA, GL_ONE_MINUS_SRC_ALPHA);
+        super.init(width, height);
+        // vor der Geometrie eingereicht: das Programm kompiliert parallel zu denen von super.init()
+        this.m_axes = new PrimitiveBatcher(m_shaderCache)
+            .begin(GL_LINES)
+            .color(1, 0, 0).vertex(-100, 0, 0).vertex(100, 0, 0)    // X
+            .color(0, 1, 0).vertex(0, -100, 0).vertex(0, 100, 0)    // Y
+            .color(0, 0, 1).vertex(0, 0, -100).vertex(0, 0, 100)    // Z
+            .end();
+        this.triangle = new Triangle(new Color4D(0, 0, 0, 1));
+        this.pentagon = new Pentagon(new Color4D(0, 0, 0, 1));
+        this.rectangle = new Rectangle(new Color4D(0, 0, 0, 1));
+        // GPU-Profiler Bereiche: die undurchsichtigen Seiten pro Form, die durchsichtigen (von hinten nach vorne gemischt) zusammen
+        setQueueScope(rectangle, m_profiler.scope("build-mode boxes"));
+        setQueueScope(triangle, m_profiler.scope("triangles"));
+        setQueueScope(pentagon, m_profiler.scope("pentagons"));
+        setQueueScope(null, m_profiler.scope("translucent faces"));
+    }
+
+    @Override
+    public boolean isReady() {
+        return super.isReady() && m_axes.isReady();
+    }
+
+    @Override
+    public void render() {
+        glClear(GL_COLOR_BUFFER_BIT | GL_DEPTH_BUFFER_BIT);
+
+        // VIEW
+        V.translation(0.0, 0.0, -m_distance).rotateX(m_xAngle * deg2rad).rotateY(m_yAngle * deg2rad).rotateZ(m_zAngle * deg2rad).scale(m_scale); // V = T*Rx*Ry*Rz*S
+
+        // Light, zusammen mit P und V einmal pro Frame hochgeladen
+        setFrameUniforms(m_light.set(0.0, 0.0, 10.0).normalize().get(m_vec3f)); // V*m_light
+
+        // Koordinatensystem: einmal aufgezeichnet, pro Frame nur gezeichnet
+        drawBatch(m_axes);
+
+        // die vorberechneten Seiten kommen in die Render-Queue: undurchsichtige nach Form sortiert
+        // von vorne nach hinten, die durchsichtigen danach von hinten nach vorne
+        FaceTable faces = getFaceTable();
+        queueFaces(rectangle, faces.rectangles);
+        queueFaces(triangle, faces.triangles);
+        queueFaces(pentagon, faces.pentagons);
+        drawQueue();
+
+        // animation
+        m_xAngle -= m_dxAngle;
+        m_yAngle -= m_dyAngle;
+    }
+
+    /*
+        Liefert die Seiten des aktuellen Modus. Sie werden nur beim ersten Gebrauch
+        berechnet, nicht in jedem Frame.
+     */
+    private FaceTable getFaceTable() {
+        final int mode = _BUILD_MODE ? 1 + buildStep : 0;
+        FaceTable faces = m_faceTables[mode];
+        if (faces == null) {
+            faces = m_faceTables[mode] = new FaceTable();
+        }
+
+        if (!faces.valid) {
+            m_faces = faces;
+            faces.clear();
+            placeSides();
+
+            // ----- End of placing sides -----
+            // reset camera/grid
+            M.translation(0, 0, 0);
+            drawTriangle(BLACK);
+
+            faces.valid = true;
+        }
+        return faces;
+    }
+
+    private void queueFaces(BaseSide side, Faces faces) {
+        final float[] colors = faces.colors;
+        for (int i = 0; i < faces.count; i++) {
+            m_queue.add(side, GL_TRIANGLES, m_faceModel.set(faces.models, i*12),
+                colors[i*4 + 0], colors[i*4 + 1], colors[i*4 + 2], colors[i*4 + 3]);
+        }
+    }
+
+    /*
+        Berechnet alle Seiten des aktuellen Modus und zeichnet sie.
+     */
+    void placeSides() {
+        // Definition: Aussenradius gleich phi wenn Edge = 1
+        // Ein Set der Ecken liegt auf einem Oktaeder, welche eine innere Länge/Breite/Höhe zwischen zwei gegenüberliegenden Ecken von 2 phi besitzt
+        // Daher sind die Eckpunkte bei (+- _s * phi, 0, 0) und seinen Permutationen. (6 Vertices)
+        Vector3f[] octahedron_vertices = getOctahedron_vertices();
+
+        // Ein anderes Set liegt auf den Ecken eines goldenen Rechteckes.
+        // Alle Punkte sind mit sign Flip + geraden Permutation dieser Formel zu berechnen: (+-_s/2, +- _s*_phi / 2,+- _s*_phi**2) (24 Vertices)
+        Vector3f[] goldenRect_vertices = getGoldenRectangleVertices();
+
+        // Ich habe das Icosidodecahedron in Geogebra nachgebaut: https://www.geogebra.org/m/y2k4gwwj.
+        // Die Kommentare hinter den Koordinaten beziehen sich auf den entsprechenden Punkt.
+
+        // Normale zeigt Richtung Z-Positiv (Vertices), gilt für jede neue Seite.
+        Vector3f normal_side = new Vector3f(0, 0, 1);
+
+        // ----- Pentagon -----
+        //Upper Pentagon (facing z-positive) (IGWCZ)
+        Vector3f[] p_vertices = {
+                goldenRect_vertices[1],
+                goldenRect_vertices[0],
+                goldenRect_vertices[16],
+                octahedron_vertices[2],
+                goldenRect_vertices[17],
+        };
+        // Normale die durch Mittelpunkt der Seite geht
+        Vector3f p_normal = calculateMiddlePoint(p_vertices);
+
+
+        // ----- Triangles -----
+        // Upper Triangle (facing Z-positive) (EGI)
+        Vector3f[] vertices_t = {
+                octahedron_vertices[4],
+                goldenRect_vertices[0],
+                goldenRect_vertices[1]
+        };
+        // Normale die durch Mittelpunkt der Seite geht
+        Vector3f t_normal = calculateMiddlePoint(vertices_t);
+
+
+        if (_AXIS_ROTATION) {
+            generateSides(PURPLE, DARK_GREEN, normal_side, p_normal, t_normal);
+        }
+
+        if (_BUILD_MODE) {
+            // Vertices Octahedron
+            Vector3f[] vertices_o = {
+                    octahedron_vertices[4],
+                    octahedron_vertices[0],
+                    octahedron_vertices[2]
+            };
+            // Normale die durch Mittelpunkt der Seite geht
+            Vector3f o_normal = calculateMiddlePoint(vertices_o);
+
+            // Rectangle vertices JHGI
+            Vector3f[] vertices_r = {
+                    goldenRect_vertices[2],
+                    goldenRect_vertices[3],
+                    goldenRect_vertices[0],
+                    goldenRect_vertices[1],
+            };
+            // Normale die durch Mittelpunkt der Seite geht
+            Vector3f r_normal = calculateMiddlePoint(vertices_r);
+
+            stepBuilder(buildStep, normal_side, o_normal, r_normal, p_normal, t_normal);
+        }
+    }
+
+    /*
+        Build the interior of the Icosidodecahedron step by step!
+     */
+    void stepBuilder(int buildStep, Vector3f normal_side, Vector3f o_normal, Vector3f r_normal, Vector3f p_normal, Vector3f t_normal) {
+        if (buildStep == 0) return;
+        // Octahedron
+        Color4D color = BLUE;
+        Vector3f rot_normal = new Vector3f();
+        normal_side.rotateY((float) (Math.PI / 4), rot_normal);
+
+        float o_angle = rot_normal.angle(o_normal);
+        final float TRIANGLE_SCALE = 2.29f;
+
+        M.translation(o_normal.x, o_normal.y, o_normal.z).rotateY(Math.PI / 4).rotateX(-o_angle).scale(TRIANGLE_SCALE);
+        drawTriangle(color);
+        M.translation(o_normal.x, -o_normal.y, o_normal.z).rotateY(Math.PI / 4).rotateZ(Math.PI).rotateX(-o_angle).scale(TRIANGLE_SCALE);
+        drawTriangle(color);
+
+
+        o_normal.rotateY((float) (Math.PI / 2));
+        M.translation(o_normal.x, o_normal.y, o_normal.z).rotateY(Math.PI / 4 + Math.PI / 2).rotateX(-o_angle).scale(TRIANGLE_SCALE);
+        drawTriangle(color);
+        M.translation(o_normal.x, -o_normal.y, o_normal.z).rotateY(Math.PI / 4 + Math.PI / 2).rotateZ(Math.PI).rotateX(-o_angle).scale(TRIANGLE_SCALE);
+        drawTriangle(color);
+
+        o_normal.rotateY((float) (Math.PI / 2));
+        M.translation(o_normal.x, o_normal.y, o_normal.z).rotateY(Math.PI / 4 + Math.PI).rotateX(-o_angle).scale(TRIANGLE_SCALE);
+        drawTriangle(color);
+        M.translation(o_normal.x, -o_normal.y, o_normal.z).rotateY(Math.PI / 4 + Math.PI).rotateZ(Math.PI).rotateX(-o_angle).scale(TRIANGLE_SCALE);
+        drawTriangle(color);
+
+        o_normal.rotateY((float) (Math.PI / 2));
+        M.translation(o_normal.x, o_normal.y, o_normal.z).rotateY(-Math.PI / 4).rotateX(-o_angle).scale(TRIANGLE_SCALE);
+        drawTriangle(color);
+        M.translation(o_normal.x, -o_normal.y, o_normal.z).rotateY(-Math.PI / 4).rotateZ(Math.PI).rotateX(-o_angle).scale(TRIANGLE_SCALE);
+        drawTriangle(color);
+        if (buildStep == 1) return;
+
+        // Golden boxes / rectangles
+        color = GREEN;
+        final float BOX_W_SCALE = _phi * _phi;
+        final float BOX_H_SCALE = 0.619f;
+
+        // Goldenbox Z
+        M.translation(r_normal.x, r_normal.y, r_normal.z);
+        drawPolygon(rectangle, color);
+        M.translation(r_normal.x, r_normal.y, -r_normal.z).rotateY(Math.PI);
+        drawPolygon(rectangle, color);
+
+        r_normal.rotateY((float) (Math.PI / 2));
+        M.translation(_s / 2, r_normal.y, r_normal.z).rotateY(Math.PI / 2).rotateZ(Math.PI / 2).scale(_phi);
+        drawPolygon(rectangle, color);
+        M.translation(-_s / 2, r_normal.y, r_normal.z).rotateY(-Math.PI / 2).rotateZ(Math.PI / 2).scale(_phi);
+        drawPolygon(rectangle, color);
+
+        r_normal.rotateY((float) -Math.PI / 2).rotateX((float) (Math.PI / 2));
+        M.translation(r_normal.x, -s_phi / 2, r_normal.z).rotateX(Math.PI / 2).rotateZ(Math.PI / 2).scale(BOX_W_SCALE, BOX_H_SCALE, 1);
+        drawPolygon(rectangle, color);
+        M.translation(r_normal.x, s_phi / 2, -r_normal.z).rotateX(-Math.PI / 2).rotateZ(Math.PI / 2).scale(BOX_W_SCALE, BOX_H_SCALE, 1);
+        drawPolygon(rectangle, color);
+        r_normal.rotateX((float) -Math.PI / 2);
+        if (buildStep == 2) return;
+
+
+        // Goldenbox Y
+        color = PINK;
+        r_normal.rotateX((float) (-Math.PI / 2)).rotateY((float) (-Math.PI / 2));
+        M.translation(r_normal.x, r_normal.y, r_normal.z).rotateX(-Math.PI / 2).rotateZ(Math.PI / 2);
+        drawPolygon(rectangle, color);
+        M.translation(r_normal.x, -r_normal.y, r_normal.z).rotateX(Math.PI / 2).rotateZ(Math.PI / 2);
+        drawPolygon(rectangle, color);
+
+        r_normal.rotateX((float) (Math.PI / 2));
+        M.translation(r_normal.x, r_normal.y, _s / 2).scale(_phi);
+        drawPolygon(rectangle, color);
+        M.translation(r_normal.x, r_normal.y, -_s / 2).rotateY(Math.PI).scale(_phi);
+        drawPolygon(rectangle, color);
+
+        r_normal.rotateY((float) -Math.PI / 2).rotateX((float) (Math.PI / 2));
+        M.translation(s_phi / 2, r_normal.y, r_normal.z).rotateY(Math.PI / 2).rotateZ(Math.PI / 2).scale(BOX_W_SCALE, BOX_H_SCALE, 1);
+        drawPolygon(rectangle, color);
+        M.translation(-s_phi / 2, r_normal.y, r_normal.z).rotateY(-Math.PI / 2).rotateZ(Math.PI / 2).scale(BOX_W_SCALE, BOX_H_SCALE, 1);
+        drawPolygon(rectangle, color);
+        r_normal.rotateX((float) -(Math.PI / 2)).rotateY((float) -Math.PI / 2);
+        r_normal.rotateY((float) (Math.PI / 2)).rotateY((float) Math.PI / 2);
+        if (buildStep == 3) return;
+
+
+        // Goldenbox X
+        r_normal.rotateY((float) (PI / 2));
+        color = YELLOW;
+        M.translation(r_normal.x, r_normal.y, r_normal.z).rotateY(PI / 2).rotateZ(PI / 2);
+        drawPolygon(rectangle, color);
+        M.translation(-r_normal.x, r_normal.y, r_normal.z).rotateY(-PI / 2).rotateZ(PI / 2);
+        drawPolygon(rectangle, color);
+
+        r_normal.rotateY((float) (PI / 2));
+        M.translation(r_normal.x, r_normal.y, -s_phi / 2).rotateY(PI).scale(BOX_W_SCALE, BOX_H_SCALE, 1);
+        drawPolygon(rectangle, color);
+        M.translation(r_normal.x, r_normal.y, s_phi / 2).rotateY(PI).rotateY(PI).scale(BOX_W_SCALE, BOX_H_SCALE, 1);
+        drawPolygon(rectangle, color);
+
+        r_normal.rotateX((float) (PI / 2));
+        M.translation(r_normal.x, _s / 2, r_normal.z).rotateZ(PI / 2).rotateY(PI / 2).scale(_phi);
+        drawPolygon(rectangle, color);
+        M.translation(r_normal.x, -_s / 2, r_normal.z).rotateX(PI).rotateZ(PI / 2).rotateY(PI / 2).scale(_phi);
+        drawPolygon(rectangle, color);
+        if (buildStep == 4) return;
+
+
+        generateSides(PURPLE_TRANSPARENT, DARK_GREEN_TRANSPARENT, normal_side, p_normal, t_normal);
+    }
+
+    /*
+        Standard buildmodus
+     */
+    void generateSides(Color4D pentagon_color, Color4D triangle_color, Vector3f normal_side, Vector3f p_normal, Vector3f t_normal) {
+        if (buildStep == 6 && _BUILD_MODE) {
+            pentagon_color = PURPLE;
+            triangle_color = DARK_GREEN;
+        }
+
+        // Rotation um Seite anzugleichen
+        float p_angle = -normal_side.angle(p_normal);
+        // Zeichnen und Verschieben/Drehen der Pentagons
+        M.translation(p_normal.x, p_normal.y, p_normal.z).rotateX(p_angle);
+        drawPolygon(pentagon, pentagon_color);
+
+        M.translation(p_normal.x, p_normal.y, -p_normal.z).rotateY(Math.PI).rotateX(p_angle);
+        drawPolygon(pentagon, pentagon_color);
+
+        M.translation(p_normal.x, -p_normal.y, p_normal.z).rotateZ(Math.PI).rotateX(p_angle);
+        drawPolygon(pentagon, pentagon_color);
+
+        M.translation(-p_normal.x, -p_normal.y, -p_normal.z).rotateY(Math.PI).rotateZ(Math.PI).rotateX(p_angle);
+        drawPolygon(pentagon, pentagon_color);
+
+
+        // Mit dem Rotation an den Achsen können die Pentagon gezeichnet werden, die nicht Symmetrisch auf einer/zwei Achsen bzw. Mittelpunkt sind.
+        // Seitliche Pentagon
+        Vector3f p_normal_l = new Vector3f();
+        p_normal.rotateY((float) (Math.PI / 2), p_normal_l).rotateX((float) (Math.PI / 2), p_normal_l);
+        float p_angle_l = normal_side.angle(p_normal_l);
+
+        M.translation(p_normal_l.x, p_normal_l.y, p_normal_l.z).rotateZ(Math.PI / 2).rotateX(p_angle_l);
+        drawPolygon(pentagon, pentagon_color);
+
+        M.translation(-p_normal_l.x, p_normal_l.y, p_normal_l.z).rotateZ(-Math.PI / 2).rotateX(p_angle_l);
+        drawPolygon(pentagon, pentagon_color);
+
+        M.translation(p_normal_l.x, p_normal_l.y, -p_normal_l.z).rotateY(Math.PI).rotateZ(-Math.PI / 2).rotateX(p_angle_l);
+        drawPolygon(pentagon, pentagon_color);
+
+        M.translation(-p_normal_l.x, p_normal_l.y, -p_normal_l.z).rotateY(Math.PI).rotateZ(Math.PI / 2).rotateX(p_angle_l);
+        drawPolygon(pentagon, pentagon_color);
+
+
+        // Obere Pentagon (gedreht 180°)
+        Vector3f p_normal_s = new Vector3f();
+        p_normal.rotateX((float) (Math.PI / 2), p_normal_s).rotateY((float) (Math.PI / 2), p_normal_s);
+
+        M.translation(p_normal_s.x, p_normal_s.y, p_normal_s.z).rotateY(Math.PI / 2).rotateX(p_angle_l);
+        drawPolygon(pentagon, pentagon_color);
+
+        M.translation(-p_normal_s.x, p_normal_s.y, p_normal_s.z).rotateY(-Math.PI / 2).rotateX(p_angle_l);
+        drawPolygon(pentagon, pentagon_color);
+
+        M.translation(p_normal_s.x, -p_normal_s.y, p_normal_s.z).rotateY(Math.PI / 2).rotateX(-p_angle_l).rotateZ(Math.PI);
+        drawPolygon(pentagon, pentagon_color);
+
+        M.translation(-p_normal_s.x, -p_normal_s.y, p_normal_s.z).rotateX(Math.PI).rotateY(-Math.PI / 2).rotateX(p_angle_l);
+        drawPolygon(pentagon, pentagon_color);
+
+        // ----- Triangles -----
+        float t_angle = normal_side.angle(t_normal);    // Winkel zwischen Seitennormale und Trianglenormale
+        final float p_inner_angle = (float) ((2 * Math.PI) / 5); // 72°, Innenwinkel Pentagon
+        Vector3f p_normal_norm = new Vector3f(p_normal.x, p_normal.y, p_normal.z).normalize();  // Die Pentagon Normale muss normalisiert werden, sonst wird verzerrt.
+
+        // counter zum verhindern von doppeltem Zeichnen von Seiten
+        int j = 0;
+        // Die Triangles werden anhand des benachbarten Pentagons rund-herum gedreht und gerendert
+        for (int i = 0; i < 5; i++) {
+            // Triangle Koordinaten an Mittelpunkt des angrenzenden Pentagons drehen
+            t_normal.rotateAxis(i * p_inner_angle, p_normal_norm.x, p_normal_norm.y, p_normal_norm.z);
+
+            M.translation(t_normal.x, t_normal.y, t_normal.z).rotate(i * p_inner_angle, p_normal_norm).rotateZ(Math.PI).rotateX(t_angle);
+            drawTriangle(triangle_color);
+
+            // Die Koordinaten müssen an Z und X gegspiegelt werden -> Rotierter Vektor -X&-Z
+            p_normal_norm.z *= -1;
+            p_normal_norm.x *= -1;
+            // Auch muss die Angle des Gegenvektors des Pentagons verwendet werden, für die Rotation.
+            M.translation(-t_normal.x, t_normal.y, -t_normal.z).rotate(i * p_inner_angle, p_normal_norm).rotateY(Math.PI).rotateZ(Math.PI).rotateX(t_angle);
+            if (i == 2 || i == 3) {
+                // Verhindere das Seite zweimal gezeichnet wird
+            } else {
+                drawTriangle(triangle_color);
+            }
+            // Zurückspiegeln für weitere Seiten
+            p_normal_norm.z *= -1;
+            p_normal_norm.x *= -1;
+
+            // Nach unten gespiegelt: Y Achse negativ
+            // Die Rotation is umgedreht, daher muss auch die Normale gedreht werden
+            t_normal.rotateAxis(-2 * i * p_inner_angle, p_normal_norm.x, p_normal_norm.y, p_normal_norm.z);
+            p_normal_norm.y *= -1;
+            M.translation(t_normal.x, -t_normal.y, t_normal.z).rotate(i * p_inner_angle, p_normal_norm).rotateX(t_angle);
+            drawTriangle(triangle_color);
+
+            p_normal_norm.z *= -1;
+            p_normal_norm.x *= -1;
+            M.translation(-t_normal.x, -t_normal.y, -t_normal.z).rotate(i * p_inner_angle, p_normal_norm).rotateY(Math.PI).rotateX(t_angle);
+            if (i == 2 || i == 3) {
+                // Verhindern das Seiten zweimal gezeichnet werden
+            } else {
+                drawTriangle(triangle_color);
+            }
+            p_normal_norm.z *= -1;
+            p_normal_norm.x *= -1;
+
+            // Reset der verstellten Koordinaten
+            p_normal_norm.y *= -1;
+            t_normal.rotateAxis(2 * i * p_inner_angle, p_normal_norm.x, p_normal_norm.y, p_normal_norm.z);
+
+            // Triangle Koordinaten an Mittelpunkt des angrenzenden Pentagons zurückdrehen
+            t_normal.rotateAxis(-i * p_inner_angle, p_normal_norm.x, p_normal_norm.y, p_normal_norm.z);
+        }
+
+        // "Liegende" Triangles (y == 0)
+        Vector3f t_normal_lie = new Vector3f();
+        t_normal.rotateY((float) (Math.PI / 2), t_normal_lie).rotateX((float) (Math.PI / 2), t_normal_lie);
+        // Gegenwinkel des Originals (90 - normal_side.angle(t_normal))
+        float t_angle_lie = -normal_side.angle(t_normal_lie);
+
+        M.translation(t_normal_lie.x, t_normal_lie.y, t_normal_lie.z).rotateY(-t_angle_lie).rotateZ(-Math.PI / 2);
+        drawTriangle(triangle_color);
+
+        M.translation(t_normal_lie.x, t_normal_lie.y, -t_normal_lie.z).rotateY(Math.PI).rotateY(t_angle_lie).rotateZ(Math.PI / 2);
+        drawTriangle(triangle_color);
+
+        M.translation(-t_normal_lie.x, t_normal_lie.y, t_normal_lie.z).rotateY(t_angle_lie).rotateZ(Math.PI / 2);
+        drawTriangle(triangle_color);
+
+        M.translation(-t_normal_lie.x, t_normal_lie.y, -t_normal_lie.z).rotateY(-Math.PI).rotateY(-t_angle_lie).rotateZ(-Math.PI / 2);
+        drawTriangle(triangle_color);
+
+        if (buildStep == 5 && _BUILD_MODE) return;
+    }
+
+    /*
+        Orts-Vektor der genau zum Mittelpunkt einer Fläche zeigt
+     */
+    Vector3f calculateMiddlePoint(Vector3f[] vertices) {
+        Vector3f v_middle = new Vector3f();
+
+        //calculate v_middle
+        for (Vector3f v : vertices) {
+            v_middle.add(v.x, v.y, v.z);
+        }
+
+        v_middle.mul(1f / vertices.length);
+        return v_middle;
+    }
+
+    /*
+        Ich habe mich dafür entschieden ein Lookup table zu machen.
+        Tatsächlich brauche ich nur 4 Vertices von diesem Table: I,G,W,Z
+        Eigentlich könnten die restlichen 16 vertices berechnet werden, indem 8 Vertices schlau gedreht werden.
+        Lösung mit Drehen wäre: Vertice nehmen und x->y je 90° drehen, sowie y->x je 90° drehen.
+     */
+    Vector3f[] getGoldenRectangleVertices() {
+        // Visualisierung auf Geogebra: https://www.geogebra.org/classic/y2k4gwwj
+        Vector3f[] goldenRectangle_vertices = {
+                // Rechteck das in Z-Richtung schaut.
+                new Vector3f(_s / 2, s_phi / 2, (((_phi * _phi) * _s)) / 2), //G
+                new Vector3f(-_s / 2, s_phi / 2, (((_phi * _phi) * _s)) / 2), //I
+                new Vector3f(-_s / 2, -s_phi / 2, (((_phi * _phi) * _s)) / 2), //J
+                new Vector3f(_s / 2, -s_phi / 2, (((_phi * _phi) * _s)) / 2),  //H
+                new Vector3f(-_s / 2, s_phi / 2, -(((_phi * _phi) * _s)) / 2), //M
+                new Vector3f(_s / 2, s_phi / 2, -(((_phi * _phi) * _s)) / 2), //K
+                new Vector3f(_s / 2, -s_phi / 2, -(((_phi * _phi) * _s)) / 2), //L
+                new Vector3f(-_s / 2, -s_phi / 2, -(((_phi * _phi) * _s)) / 2), //N
+                // 'Gelegtes' Rechteck entlang X
+                new Vector3f((((_phi * _phi) * _s)) / 2, _s / 2, s_phi / 2), //O
+                new Vector3f(-(((_phi * _phi) * _s)) / 2, _s / 2, s_phi / 2), //P
+                new Vector3f(-(((_phi * _phi) * _s)) / 2, -_s / 2, s_phi / 2), //S
+                new Vector3f((((_phi * _phi) * _s)) / 2, -_s / 2, s_phi / 2), //Q
+                new Vector3f(-(((_phi * _phi) * _s)) / 2, _s / 2, -s_phi / 2), //T
+                new Vector3f((((_phi * _phi) * _s)) / 2, _s / 2, -s_phi / 2), //R
+                new Vector3f((((_phi * _phi) * _s)) / 2, -_s / 2, -s_phi / 2), //U
+                new Vector3f(-(((_phi * _phi) * _s)) / 2, -_s / 2, -s_phi / 2), //V
+                // Hochgestelltes Rechteck entlang Y (phis / 2, phis² / 2, s / 2)
+                new Vector3f(s_phi / 2, (((_phi * _phi) * _s)) / 2, _s / 2), //W
+                new Vector3f(-s_phi / 2, (((_phi * _phi) * _s)) / 2, _s / 2), //Z
+                new Vector3f(-s_phi / 2, -(((_phi * _phi) * _s)) / 2, _s / 2), //C_1
+                new Vector3f(s_phi / 2, -(((_phi * _phi) * _s)) / 2, _s / 2), //A_1
+                new Vector3f(-s_phi / 2, (((_phi * _phi) * _s)) / 2, -_s / 2), //D_1
+                new Vector3f(s_phi / 2, (((_phi * _phi) * _s)) / 2, -_s / 2), //B_1
+                new Vector3f(s_phi / 2, -(((_phi * _phi) * _s)) / 2, -_s / 2), //E_1
+                new Vector3f(-s_phi / 2, -(((_phi * _phi) * _s)) / 2, -_s / 2), //F_1
+        };
+
+        return goldenRectangle_vertices;
+    }
+
+    /*
+        Vertices eines Octahedrons
+        Permutationen von (+- _s * phi, 0, 0)
+        Tatsächlich gebrauchte Vertices 2: C,E
+     */
+    Vector3f[] getOctahedron_vertices() {
+        return new Vector3f[]{
+                new Vector3f(s_phi, 0, 0), //A
+                new Vector3f(-s_phi, 0, 0), //B
+                new Vector3f(0, s_phi, 0), //C
+                new Vector3f(0, -s_phi, 0), //D
+                new Vector3f(0, 0, s_phi), //E
+                new Vector3f(0, 0, -s_phi), //F
+        };
+    }
+
+    public void changeXangle(double delta) {
+        m_dxAngle += delta;
+    }
+
+    public void changeYangle(double delta) {
+        m_dyAngle += delta;
+    }
+
+    /*
+        Seiten werden nur in die Tabelle aufgezeichnet und später sortiert gezeichnet (Render-Queue, Instancing).
+     */
+    void drawTriangle(Color4D color) {
+        m_faces.triangles.add(M, color);
+    }
+
+    void drawPolygon(BaseSide side, Color4D color) {
+        (side == pentagon ? m_faces.pentagons : m_faces.rectangles).add(M, color);
+    }
+
+    /*
+        Skalieren ändert nur V: Meshes und Seiten-Tabellen bleiben unverändert auf der GPU.
+     */
+    public void scaleUp(float increment) {
+        m_scale += increment;
+    }
+
+    public void scaleDown(float increment) {
+        if (m_scale - increment < 0.1f) return;
+        m_scale -= increment;
+    }
+
+    @Override
+    public void dispose() {
+        triangle.dispose();
+        pentagon.dispose();
+        rectangle.dispose();
+        m_axes.free();
+        super.dispose();
+    }
+
+    /*
+        Model-Matrizen und Farben aller Seiten eines Modus, einmal berechnet und jedes Frame in die Render-Queue gestellt.
+     */
+    private static class FaceTable {
+        final Faces triangles = new Faces(32);
+        final Faces pentagons = new Faces(16);
+        final Faces rectangles = new Faces(16);
+        boolean valid;
+
+        void clear() {
+            triangles.count = 0;
+            pentagons.count = 0;
+            rectangles.count = 0;
+        }
+    }
+
+    /*
+        Seiten einer Form: Model-Matrix (mat4x3, spaltenweise) und Farbe pro Seite. Die Normalen-Matrix
+        berechnet erst drawQueue(), einmal pro sichtbarer Seite.
+     */
+    private static class Faces {
+        double[] models;
+        float[] colors;
+        int count;
+
+        Faces(int capacity) {
+            models = new double[capacity*12];
+            colors = new float[capacity*4];
+        }
+
+        void add(Matrix4x3d model, Color4D color) {
+            if (count*4 == colors.length) {
+                models = Arrays.copyOf(models, models.length*2);
+                colors = Arrays.copyOf(colors, colors.length*2);
+            }
+            model.get(models, count*12);
+            colors[count*4 + 0] = color.r;
+            colors[count*4 + 1] = color.g;
+            colors[count*4 + 2] = color.b;
+            colors[count*4 + 3] = color.a;
+            count++;
+        }
+    }
+
+    static class BaseSide extends OGLObject {
+        protected BaseSide(Color4D color) {
+            super(color);
+        }
+    }
+
+    // the second form that is a side of a Icosidodecahedron is a triangle (each side same length)
+    private static class Triangle extends BaseSide {
+        protected Triangle(Color4D color) {
+            super(color);
+
+            float h = (float) ((Math.sqrt(3) / 2) * _s);
+            float v1[] = {-_s / 2, -h / 3, 0};
+            float v2[] = {_s / 2, -h / 3, 0};
+            float v3[] = {0, h - h / 3, 0};
+
+            try (MeshBuilder mesh = MeshBuilder.acquire()) {
+                mesh.normal(0, 0, 1);
+                mesh.vertex(v1[0], v1[1], v1[2]);
+                mesh.vertex(v2[0], v2[1], v2[2]);
+                mesh.vertex(v3[0], v3[1], v3[2]);
+
+                // Upload vertex positions and normals
+                bindBuffers(mesh);
+            }
+        }
+    }
+
+    private class Pentagon extends BaseSide {
+        // 72° = 360/5 in radians
+        final double angle_increment = 2 * Math.PI / 5;
+
+        protected Pentagon(Color4D color) {
+            super(color);
+
+            final int nVertices = 5; // five points for a pentagon
+
+            // Calculate all vertices
+            //angepasster umkreisradius (da via Seitenlänge = _s gesteuertt wird wie gross die form ist)
+            float r_u = (float) (_s / (2 * Math.sin(Math.toRadians(36))));
+
+            try (MeshBuilder mesh = MeshBuilder.acquire()) {
+                mesh.normal(0, 0, 1);
+                for (int i = 0; i < nVertices; i++) {
+                    float x = (float) (r_u * Math.cos((Math.PI / 2) + i * angle_increment));
+                    float y = (float) (r_u * Math.sin((Math.PI / 2) + i * angle_increment));
+                    float z = 0;
+
+                    mesh.vertex(x, y, z);
+                }
+                // Fächer um Ecke 0 als Dreiecksliste
+                for (int i = 1; i < nVertices - 1; i++) {
+                    mesh.triangle(0, i, i + 1);
+                }
+
+                // Upload vertex positions and normals
+                bindBuffers(mesh);
+            }
+        }
+    }
+
+    private class Rectangle extends BaseSide {
+        protected Rectangle(Color4D color) {
+            super(color);
+
+            try (MeshBuilder mesh = MeshBuilder.acquire()) {
+                mesh.normal(0, 0, 1);
+                mesh.vertex(-_s / 2, -s_phi / 2, 0);
+                mesh.vertex(_s / 2, -s_phi / 2, 0);
+                mesh.vertex(_s / 2, s_phi / 2, 0);
+                mesh.vertex(-_s / 2, s_phi / 2, 0);
+                mesh.triangle(0, 1, 2).triangle(0, 2, 3);
+
+                // Upload vertex positions and normals
+                bindBuffers(mesh);
+            }
+        }
+    }
+}
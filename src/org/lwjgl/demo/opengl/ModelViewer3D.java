@@ -0,0 +1,167 @@
+package org.lwjgl.demo.opengl;
+
+import static org.joml.Math.PI;
+import static org.lwjgl.glfw.GLFW.GLFW_KEY_DOWN;
+import static org.lwjgl.glfw.GLFW.GLFW_KEY_ESCAPE;
+import static org.lwjgl.glfw.GLFW.GLFW_KEY_LEFT;
+import static org.lwjgl.glfw.GLFW.GLFW_KEY_PAGE_DOWN;
+import static org.lwjgl.glfw.GLFW.GLFW_KEY_PAGE_UP;
+import static org.lwjgl.glfw.GLFW.GLFW_KEY_RIGHT;
+import static org.lwjgl.glfw.GLFW.GLFW_KEY_UP;
+import static org.lwjgl.glfw.GLFW.GLFW_PRESS;
+import static org.lwjgl.glfw.GLFW.GLFW_RELEASE;
+import static org.lwjgl.glfw.GLFW.GLFW_REPEAT;
+import static org.lwjgl.glfw.GLFW.glfwSetWindowShouldClose;
+import static org.lwjgl.opengl.GL11C.GL_COLOR_BUFFER_BIT;
+import static org.lwjgl.opengl.GL11C.GL_DEPTH_BUFFER_BIT;
+import static org.lwjgl.opengl.GL11C.GL_ONE_MINUS_SRC_ALPHA;
+import static org.lwjgl.opengl.GL11C.GL_SRC_ALPHA;
+import static org.lwjgl.opengl.GL11C.GL_TRIANGLES;
+import static org.lwjgl.opengl.GL11C.glBlendFunc;
+import static org.lwjgl.opengl.GL11C.glClear;
+
+import java.nio.FloatBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.function.Consumer;
+
+import org.joml.Vector3d;
+import org.lwjgl.BufferUtils;
+import org.lwjgl.demo.util.Color4D;
+import org.lwjgl.demo.util.ModelImporter;
+import org.lwjgl.demo.util.OGLApp;
+import org.lwjgl.demo.util.OGLMesh;
+import org.lwjgl.demo.util.OGLModel3D;
+
+/**
+ * Shows a model file (OBJ, PLY, STL, glTF, ... everything Assimp reads). The meshes appear while
+ * the file is still being converted.
+ */
+public class ModelViewer3D extends OGLApp<ModelViewerModel> {
+	public ModelViewer3D(ModelViewerModel model) {
+		super(model);
+
+		m_keyCallback = (window, key, scancode, action, mods) -> {
+			if (key == GLFW_KEY_ESCAPE && action == GLFW_RELEASE)
+				glfwSetWindowShouldClose(window, true); // We will detect this in the rendering loop
+			else if (action == GLFW_PRESS || action == GLFW_REPEAT) {
+				switch(key) {
+				case GLFW_KEY_LEFT: model.changeYangle(0.25); break;
+				case GLFW_KEY_RIGHT: model.changeYangle(-0.25); break;
+				case GLFW_KEY_UP: model.changeXangle(5); break;
+				case GLFW_KEY_DOWN: model.changeXangle(-5); break;
+				case GLFW_KEY_PAGE_UP: model.changeDistance(-1); break;
+				case GLFW_KEY_PAGE_DOWN: model.changeDistance(1); break;
+				}
+			}
+		};
+	}
+
+	public static void main(String[] args) {
+		if (args.length != 1) {
+			System.err.println("Usage: ModelViewer3D <model file>");
+			System.exit(1);
+		}
+		new ModelViewer3D(new ModelViewerModel(Path.of(args[0]))).run("Model Viewer", 640, 640, new Color4D(0.7f, 0.7f, 0.7f, 1));
+	}
+}
+
+class ModelViewerModel extends OGLModel3D {
+	final static double deg2rad = PI/180;
+
+	private static final int UPLOADS_PER_FRAME = 4;		// meshes uploaded per frame while importing
+	private static final double SIZE = 4.0;				// radius of the model in the view
+
+	private final Path m_file;
+	private final Vector3d m_light  = new Vector3d();
+	private final FloatBuffer m_vec3f = BufferUtils.createFloatBuffer(3);
+	private final ArrayList<OGLMesh> m_meshes = new ArrayList<>();
+	private final Consumer<OGLMesh> m_addMesh = this::addMesh;
+
+	private ModelImporter m_importer;	// null once all meshes are uploaded
+	private double m_radius;			// of all uploaded meshes
+	private int m_scope;				// GPU profiler scope
+    private double m_distance = 15.0f;	// camera distance
+    private double m_dyAngle = 0.5; 	// degrees
+    private double m_xAngle = 20;		// degrees
+    private double m_yAngle = 0;		// degrees
+
+	ModelViewerModel(Path file) {
+		m_file = file;
+	}
+
+	@Override
+	public void init(int width, int height) {
+		super.init(width, height);
+		glBlendFunc(GL_SRC_ALPHA, GL_ONE_MINUS_SRC_ALPHA);	// for translucent materials, enabled by drawQueue()
+		// the file is read and converted on other threads while the programs compile
+		m_importer = new ModelImporter(m_file, new Color4D(0.8f, 0.8f, 0.8f, 1));
+		m_scope = m_profiler.scope("meshes");
+	}
+
+	@Override
+	public void render() {
+		if (m_importer != null) {
+			m_importer.poll(UPLOADS_PER_FRAME, m_addMesh);
+			if (m_importer.isDone()) {
+				m_importer.close();
+				m_importer = null;
+			}
+		}
+
+        glClear(GL_COLOR_BUFFER_BIT | GL_DEPTH_BUFFER_BIT);
+
+        // VIEW
+        V.translation(0.0, 0.0, -m_distance).rotateX(m_xAngle*deg2rad).rotateY(m_yAngle*deg2rad);
+
+        // LIGHT, uploaded together with P and V once per frame
+        setFrameUniforms(V.transformDirection(m_light.set(5.0, 5.0, 10.0)).normalize().get(m_vec3f)); // V*m_light
+
+        // all meshes share the model transform; the size of the model is known only at the end of
+        // the import, until then it grows with every mesh
+        final double scale = (m_radius > 0) ? SIZE/m_radius : 1;
+        M.scaling(scale);
+
+        // through the render queue, which grows with the number of meshes (the uniform ring holds
+        // DRAWS_PER_FRAME draws only); meshes outside the frustum (e.g. when zoomed in) are culled there
+        for (int i = 0; i < m_meshes.size(); i++) {
+        	OGLMesh mesh = m_meshes.get(i);
+        	FloatBuffer color = mesh.getColor();
+        	m_queue.add(mesh, GL_TRIANGLES, M, color.get(0), color.get(1), color.get(2), color.get(3));
+        }
+
+        m_profiler.begin(m_scope);
+        drawQueue();
+        m_profiler.end();
+
+        // animation
+        m_yAngle -= m_dyAngle;
+	}
+
+	@Override
+	public void dispose() {
+		if (m_importer != null) m_importer.close();
+		for (OGLMesh mesh : m_meshes) {
+			mesh.dispose();
+		}
+		m_meshes.clear();
+		super.dispose();
+	}
+
+	public void changeXangle(double delta) {
+		m_xAngle += delta;
+	}
+
+	public void changeYangle(double delta) {
+		m_dyAngle += delta;
+	}
+
+	public void changeDistance(double delta) {
+		m_distance = Math.max(1, m_distance + delta);
+	}
+
+	private void addMesh(OGLMesh mesh) {
+		m_meshes.add(mesh);
+		m_radius = Math.max(m_radius, mesh.getBoundingRadius());
+	}
+}
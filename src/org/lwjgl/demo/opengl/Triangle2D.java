@@ -3,17 +3,13 @@ package org.lwjgl.demo.opengl;
 import static org.lwjgl.glfw.GLFW.*;
 import static org.lwjgl.glfw.GLFW.glfwGetTime;
 import static org.lwjgl.glfw.GLFW.glfwSetWindowShouldClose;
-import static org.lwjgl.opengl.GL11.*;
-import static org.lwjgl.opengl.GL11.glBegin;
-import static org.lwjgl.opengl.GL11.glColor3f;
-import static org.lwjgl.opengl.GL11.glEnd;
-import static org.lwjgl.opengl.GL11.glLoadIdentity;
-import static org.lwjgl.opengl.GL11.glRotatef;
-import static org.lwjgl.opengl.GL11.glVertex3f;
+import static org.lwjgl.opengl.GL11C.GL_LINES;
+import static org.lwjgl.opengl.GL11C.GL_TRIANGLES;
 
 import org.lwjgl.demo.util.Color4D;
 import org.lwjgl.demo.util.OGLApp;
 import org.lwjgl.demo.util.OGLModel2D;
+import org.lwjgl.demo.util.PrimitiveBatcher;
 
 public class Triangle2D extends OGLApp<TriangleModel> {
 
@@ -39,33 +35,45 @@ class TriangleModel extends OGLModel2D {
 	final static float h = s2*(float)Math.sqrt(3); 	// triangle height
 
 	private float m_speed = 2.0f;
+	private PrimitiveBatcher m_batch;	// axis and triangle
+
+	@Override
+	public void init(int width, int height) {
+		super.init(width, height);
+
+		// recorded once, only M changes per frame
+		m_batch = new PrimitiveBatcher(m_shaderCache);
+
+		// axis
+		m_batch.begin(GL_LINES)
+			.color(0f, 0f, 0f)
+			.vertex(-1f, 0, 0f).vertex(1f, 0, 0f)
+			.vertex(0, -1f, 0f).vertex(0, 1f, 0f)
+			.end();
+
+		// triangle
+		m_batch.begin(GL_TRIANGLES)
+			.color(1f, 0f, 0f).vertex(-s2, -h/3, 0f)
+			.color(0f, 1f, 0f).vertex(s2, -h/3, 0f)
+			.color(0f, 0f, 1f).vertex(0f, 2*h/3, 0f)
+			.end();
+	}
+
+	@Override
+	public boolean isReady() {
+		return m_batch.isReady();
+	}
 
 	@Override
 	public void render() {
-        // legacy style 2D rendering (compatibility profile)
-        
-        // manipulate model-view matrix
-        glLoadIdentity();
-        glRotatef((float) glfwGetTime()*25f*m_speed, 0f, 0f, 1f);
+        // rotate the model matrix, formerly glRotatef on the model-view matrix
+        M.rotationZ(Math.toRadians(glfwGetTime()*25*m_speed));
+        drawBatch(m_batch);
+	}
 
-        // render axis
-        glBegin(GL_LINES);
-        glColor3f(0f, 0f, 0f);
-        glVertex3f(-1f, 0, 0f);
-        glVertex3f(1f, 0, 0f);
-        glVertex3f(0, -1f, 0f);
-        glVertex3f(0, 1f, 0f);
-        glEnd();
-        
-        /* Render triangle */
-        glBegin(GL_TRIANGLES);
-        glColor3f(1f, 0f, 0f);
-        glVertex3f(-s2, -h/3, 0f);
-        glColor3f(0f, 1f, 0f);
-        glVertex3f(s2, -h/3, 0f);
-        glColor3f(0f, 0f, 1f);
-        glVertex3f(0f, 2*h/3, 0f);
-        glEnd();
+	@Override
+	public void dispose() {
+		m_batch.free();
 	}
 	
 	public void changeSpeed(double delta) {
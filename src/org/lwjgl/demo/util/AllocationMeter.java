@@ -0,0 +1,87 @@
+package org.lwjgl.demo.util;
+
+import java.lang.management.ManagementFactory;
+
+import com.sun.management.ThreadMXBean;
+
+/**
+ * Measures the heap bytes allocated by the current thread between begin() and end(),
+ * e.g. by OGLModel.render() in each frame.
+ *
+ * In strict mode any allocation after the warm-up frames is an error. This keeps the
+ * render path free of garbage and therefore free of GC hiccups.
+ *
+ * On JVMs without thread allocation accounting the meter measures nothing (isSupported()
+ * is false); only strict mode refuses to run there.
+ */
+public class AllocationMeter {
+	private final ThreadMXBean m_threads;	// null if allocation accounting is not supported
+	private final long[] m_window;		// bytes of the last frames (ring buffer)
+	private final int m_warmupFrames;
+	private final boolean m_strict;
+
+	private long m_frame;				// number of measured frames
+	private long m_windowSum;			// sum of m_window
+	private long m_start;
+
+	public AllocationMeter(int windowFrames, int warmupFrames, boolean strict) {
+		m_window = new long[windowFrames];
+		m_warmupFrames = warmupFrames;
+		m_strict = strict;
+
+		// com.sun.management is not part of every JVM
+		if (ManagementFactory.getThreadMXBean() instanceof ThreadMXBean threads && threads.isThreadAllocatedMemorySupported()) {
+			threads.setThreadAllocatedMemoryEnabled(true);
+			m_threads = threads;
+		} else if (strict) {
+			throw new UnsupportedOperationException("Thread allocation accounting is not supported by this JVM");
+		} else {
+			m_threads = null;
+		}
+	}
+
+	/**
+	 * @return false if the JVM cannot account allocations; then end() and getBytesPerFrame() return 0
+	 */
+	public boolean isSupported() {
+		return m_threads != null;
+	}
+
+	/**
+	 * Creates a meter configured by the system properties ogl.alloc.strict and ogl.alloc.warmup.
+	 */
+	public static AllocationMeter fromSystemProperties() {
+		return new AllocationMeter(60, Integer.getInteger("ogl.alloc.warmup", 300), Boolean.getBoolean("ogl.alloc.strict"));
+	}
+
+	public void begin() {
+		if (m_threads != null) m_start = m_threads.getCurrentThreadAllocatedBytes();
+	}
+
+	/**
+	 * @return bytes allocated since begin()
+	 * @throws IllegalStateException in strict mode, if anything was allocated after the warm-up
+	 */
+	public long end() {
+		if (m_threads == null) return 0;
+		final long bytes = m_threads.getCurrentThreadAllocatedBytes() - m_start;
+		final int i = (int)(m_frame % m_window.length);
+
+		m_windowSum += bytes - m_window[i];
+		m_window[i] = bytes;
+		m_frame++;
+
+		if (m_strict && bytes > 0 && m_frame > m_warmupFrames) {
+			throw new IllegalStateException("render() allocated " + bytes + " bytes in frame " + m_frame);
+		}
+		return bytes;
+	}
+
+	/**
+	 * @return average number of bytes allocated per frame over the last frames
+	 */
+	public double getBytesPerFrame() {
+		final long n = Math.min(m_frame, m_window.length);
+		return (n == 0) ? 0 : m_windowSum/(double)n;
+	}
+}
@@ -1,5 +1,7 @@
 package org.lwjgl.demo.util;
 
+import java.nio.FloatBuffer;
+
 public class Color4D {
 	public float r,g,b,a;
 	
@@ -13,4 +15,10 @@ public class Color4D {
 	public float[] toArray() {
 		return new float[] { r, g, b, a };
 	}
+
+	// stores r, g, b, a at index 0..3 of dest without allocating
+	public FloatBuffer get(FloatBuffer dest) {
+		dest.put(0, r).put(1, g).put(2, b).put(3, a);
+		return dest;
+	}
 }
@@ -0,0 +1,167 @@
+package org.lwjgl.demo.util;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Frame time statistics: a fixed-size, log-bucketed histogram of nanosecond frame times
+ * plus mean, variance and maximum. Recording never allocates.
+ *
+ * Each power of two is split into 16 linear buckets, so a bucket is at most 6.25% wide.
+ * Times up to 2^40 ns (about 18 minutes) are kept, longer ones go into the last bucket.
+ */
+public class FrameStats {
+	private static final int SUB_BITS = 4;
+	private static final int SUB_BUCKETS = 1 << SUB_BITS;
+	private static final int MAX_EXPONENT = 40;
+	private static final int BUCKETS = (MAX_EXPONENT - SUB_BITS + 2)*SUB_BUCKETS;
+
+	private final long[] m_counts = new long[BUCKETS];
+	private long m_count;
+	private long m_max;
+	private long m_total;		// sum of all frame times [ns]
+	private double m_mean;		// running mean and sum of squared deviations (Welford)
+	private double m_m2;
+
+	public void record(long nanos) {
+		if (nanos < 0) nanos = 0;
+
+		m_counts[bucket(nanos)]++;
+		m_count++;
+		m_total += nanos;
+		if (nanos > m_max) m_max = nanos;
+
+		final double delta = nanos - m_mean;
+		m_mean += delta/m_count;
+		m_m2 += delta*(nanos - m_mean);
+	}
+
+	public void reset() {
+		Arrays.fill(m_counts, 0);
+		m_count = 0;
+		m_max = 0;
+		m_total = 0;
+		m_mean = 0;
+		m_m2 = 0;
+	}
+
+	public long getCount() {
+		return m_count;
+	}
+
+	public long getMax() {
+		return m_max;
+	}
+
+	public double getMean() {
+		return m_mean;
+	}
+
+	/**
+	 * @return sample variance of the frame times [ns^2]
+	 */
+	public double getVariance() {
+		return (m_count > 1) ? m_m2/(m_count - 1) : 0;
+	}
+
+	/**
+	 * @return average frames per second
+	 */
+	public double getFps() {
+		return (m_total > 0) ? m_count*1e9/m_total : 0;
+	}
+
+	/**
+	 * @param p percentile in [0, 100]
+	 * @return frame time [ns] at percentile p, accurate to the bucket width
+	 */
+	public long getPercentile(double p) {
+		if (m_count == 0) return 0;
+
+		final long rank = Math.max(1, (long)Math.ceil(p/100*m_count));
+		long seen = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			seen += m_counts[i];
+			if (seen >= rank) {
+				// middle of the bucket, but never above the largest recorded value
+				return Math.min((lowerBound(i) + lowerBound(i + 1) - 1)/2, m_max);
+			}
+		}
+		return m_max;
+	}
+
+	/**
+	 * One-line summary in milliseconds, e.g. for the console.
+	 */
+	public String summary() {
+		return String.format(Locale.ROOT, "%.1f fps, frame time p50 %.2f ms, p95 %.2f ms, p99 %.2f ms, max %.2f ms, stddev %.2f ms",
+			getFps(), getPercentile(50)/1e6, getPercentile(95)/1e6, getPercentile(99)/1e6, m_max/1e6, Math.sqrt(getVariance())/1e6);
+	}
+
+	/**
+	 * Writes the histogram as CSV (one row per non-empty bucket) or JSON, depending on the file extension.
+	 */
+	public void export(Path file) throws IOException {
+		try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(file))) {
+			if (file.toString().endsWith(".json")) {
+				writeJSON(out);
+			} else {
+				writeCSV(out);
+			}
+		}
+	}
+
+	public void writeCSV(PrintWriter out) {
+		out.println("lower_ns,upper_ns,count");
+		for (int i = 0; i < BUCKETS; i++) {
+			if (m_counts[i] > 0) {
+				out.format(Locale.ROOT, "%d,%d,%d%n", lowerBound(i), lowerBound(i + 1) - 1, m_counts[i]);
+			}
+		}
+	}
+
+	public void writeJSON(PrintWriter out) {
+		out.println("{");
+		out.format(Locale.ROOT, "  \"frames\": %d,%n", m_count);
+		out.format(Locale.ROOT, "  \"fps\": %.3f,%n", getFps());
+		out.format(Locale.ROOT, "  \"mean_ns\": %.1f,%n", m_mean);
+		out.format(Locale.ROOT, "  \"variance_ns2\": %.1f,%n", getVariance());
+		out.format(Locale.ROOT, "  \"p50_ns\": %d,%n", getPercentile(50));
+		out.format(Locale.ROOT, "  \"p95_ns\": %d,%n", getPercentile(95));
+		out.format(Locale.ROOT, "  \"p99_ns\": %d,%n", getPercentile(99));
+		out.format(Locale.ROOT, "  \"max_ns\": %d,%n", m_max);
+		out.println("  \"histogram\": [");
+		String separator = "";
+		for (int i = 0; i < BUCKETS; i++) {
+			if (m_counts[i] > 0) {
+				out.format(Locale.ROOT, "%s    { \"lower_ns\": %d, \"upper_ns\": %d, \"count\": %d }", separator, lowerBound(i), lowerBound(i + 1) - 1, m_counts[i]);
+				separator = ",\n";
+			}
+		}
+		out.println();
+		out.println("  ]");
+		out.println("}");
+	}
+
+	private static int bucket(long nanos) {
+		if (nanos < SUB_BUCKETS) return (int)nanos;
+
+		final int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+		if (exponent > MAX_EXPONENT) return BUCKETS - 1;
+
+		final int sub = (int)(nanos >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+		return (exponent - SUB_BITS + 1)*SUB_BUCKETS + sub;
+	}
+
+	private static long lowerBound(int bucket) {
+		if (bucket < SUB_BUCKETS) return bucket;
+
+		final int exponent = bucket/SUB_BUCKETS + SUB_BITS - 1;
+		final int sub = bucket % SUB_BUCKETS;
+		return (long)(SUB_BUCKETS + sub) << (exponent - SUB_BITS);
+	}
+}
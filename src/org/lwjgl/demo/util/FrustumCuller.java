@@ -0,0 +1,218 @@
+package org.lwjgl.demo.util;
+
+// https://www.gamedevs.org/uploads/fast-extraction-viewing-frustum-planes-from-world-view-projection-matrix.pdf
+
+import java.util.Arrays;
+import java.util.Locale;
+
+import org.joml.Matrix4d;
+import org.joml.Matrix4dc;
+import org.joml.Matrix4x3dc;
+import org.joml.Vector3fc;
+import org.joml.Vector4d;
+
+/**
+ * Frustum culling of whole objects on the CPU, before their draw calls are issued.
+ *
+ * The bounds of a batch of objects (the bounding sphere and the axis-aligned box of each OGLObject,
+ * transformed by its model matrix) are stored as a structure of arrays: one float array per
+ * component. cull() then tests blocks of objects against one frustum plane after the other in plain
+ * loops over these arrays: per object, the least signed distance of the sphere and the box to the
+ * planes is kept with Math.min, and C2 vectorizes these loops. An object is culled if its sphere or
+ * its box lies completely outside one of the planes, i.e. if that distance is negative. Most of the
+ * time is spent in add(), which transforms the bounds of one object after the other (see
+ * FrustumCullerBenchmark).
+ *
+ * Typical use per frame:
+ * <pre>
+ * culler.setFrustum(P, V);
+ * culler.clear();
+ * for (...) culler.add(object, M);
+ * culler.cull();
+ * for (...) if (culler.isVisible(i)) draw ...
+ * </pre>
+ * With -Dogl.cpu.culling=false all objects are visible, e.g. to compare the frame times.
+ */
+public class FrustumCuller {
+	private static final int INITIAL_CAPACITY = 64;
+	private static final int BLOCK = 256;		// objects tested against all planes at once: 11 arrays of 1 KiB
+
+	private final boolean m_enabled;
+	private final float[] m_planes = new float[6*4];	// world space, normalized: a, b, c, d per plane
+	private final Matrix4d m_PV = new Matrix4d();
+	private final Vector4d m_plane = new Vector4d();
+
+	// world space bounds of the batch, one array per component
+	private float[] m_sx, m_sy, m_sz, m_sr;			// sphere centers and radii
+	private float[] m_bx, m_by, m_bz;				// box centers
+	private float[] m_ex, m_ey, m_ez;				// box half extents
+	private float[] m_distance;						// least distance of sphere and box to the planes, negative if outside
+	private int m_count;
+	private int m_visibleCount;
+
+	private long m_frameObjects, m_frameVisible;	// counted since the last endFrame()
+	private long m_lastObjects, m_lastVisible;		// of the last complete frame
+
+	public FrustumCuller() {
+		this(!"false".equals(System.getProperty("ogl.cpu.culling")));
+	}
+
+	public FrustumCuller(boolean enabled) {
+		m_enabled = enabled;
+		allocate(INITIAL_CAPACITY);
+	}
+
+	public boolean isEnabled() {
+		return m_enabled;
+	}
+
+	/**
+	 * Sets the frustum of the following culls. The planes are extracted from P*V, so the bounds are
+	 * tested in world space; this is the same test as with the planes of P*V*M in object space, but
+	 * needs one extraction per frame instead of one per object.
+	 */
+	public void setFrustum(Matrix4dc P, Matrix4x3dc V) {
+		P.mul(V, m_PV);
+		for (int p = 0; p < 6; p++) {
+			m_PV.frustumPlane(p, m_plane);	// normalized
+			m_planes[p*4 + 0] = (float)m_plane.x;
+			m_planes[p*4 + 1] = (float)m_plane.y;
+			m_planes[p*4 + 2] = (float)m_plane.z;
+			m_planes[p*4 + 3] = (float)m_plane.w;
+		}
+	}
+
+	/**
+	 * Removes all objects of the batch; the storage is kept.
+	 */
+	public void clear() {
+		m_count = 0;
+		m_visibleCount = 0;
+	}
+
+	public int getCount() {
+		return m_count;
+	}
+
+	/**
+	 * Adds object with model matrix M to the batch.
+	 * @return index of the object in the batch, for isVisible()
+	 */
+	public int add(OGLObject object, Matrix4x3dc M) {
+		if (m_count == m_sx.length) allocate(m_count*2);
+		final int i = m_count++;
+
+		// float precision is plenty for culling
+		final float m00 = (float)M.m00(), m01 = (float)M.m01(), m02 = (float)M.m02();
+		final float m10 = (float)M.m10(), m11 = (float)M.m11(), m12 = (float)M.m12();
+		final float m20 = (float)M.m20(), m21 = (float)M.m21(), m22 = (float)M.m22();
+		final float m30 = (float)M.m30(), m31 = (float)M.m31(), m32 = (float)M.m32();
+
+		// sphere around the object origin, scaled by the largest axis scale of M
+		final float sx2 = m00*m00 + m01*m01 + m02*m02, sy2 = m10*m10 + m11*m11 + m12*m12, sz2 = m20*m20 + m21*m21 + m22*m22;
+		final float sxy2 = (sx2 > sy2) ? sx2 : sy2;
+		final float scale2 = (sxy2 > sz2) ? sxy2 : sz2;
+		m_sx[i] = m30;
+		m_sy[i] = m31;
+		m_sz[i] = m32;
+		m_sr[i] = object.getBoundingRadius()*(float)Math.sqrt(scale2);
+
+		// box: the center is transformed, the extents are projected onto the world axes
+		final Vector3fc min = object.getBoundsMin(), max = object.getBoundsMax();
+		final float cx = (min.x() + max.x())*0.5f, cy = (min.y() + max.y())*0.5f, cz = (min.z() + max.z())*0.5f;
+		final float ex = (max.x() - min.x())*0.5f, ey = (max.y() - min.y())*0.5f, ez = (max.z() - min.z())*0.5f;
+		m_bx[i] = m00*cx + m10*cy + m20*cz + m30;
+		m_by[i] = m01*cx + m11*cy + m21*cz + m31;
+		m_bz[i] = m02*cx + m12*cy + m22*cz + m32;
+		m_ex[i] = Math.abs(m00)*ex + Math.abs(m10)*ey + Math.abs(m20)*ez;
+		m_ey[i] = Math.abs(m01)*ex + Math.abs(m11)*ey + Math.abs(m21)*ez;
+		m_ez[i] = Math.abs(m02)*ex + Math.abs(m12)*ey + Math.abs(m22)*ez;
+		return i;
+	}
+
+	/**
+	 * Tests all objects of the batch against the frustum.
+	 * @return number of visible objects
+	 */
+	public int cull() {
+		final int n = m_count;
+		final float[] sx = m_sx, sy = m_sy, sz = m_sz, sr = m_sr;
+		final float[] bx = m_bx, by = m_by, bz = m_bz, ex = m_ex, ey = m_ey, ez = m_ez;
+		final float[] distance = m_distance;
+
+		Arrays.fill(distance, 0, n, Float.POSITIVE_INFINITY);
+		if (m_enabled) {
+			// block by block, so the arrays of a block stay in the L1 cache for all six planes
+			for (int start = 0; start < n; start += BLOCK) {
+				final int end = Math.min(n, start + BLOCK);
+				for (int p = 0; p < 6; p++) {
+					final float a = m_planes[p*4], b = m_planes[p*4 + 1], c = m_planes[p*4 + 2], d = m_planes[p*4 + 3];
+					final float aa = Math.abs(a), ab = Math.abs(b), ac = Math.abs(c);
+					// two loops: C2 does not vectorize a single loop over all ten arrays
+					for (int i = start; i < end; i++) {
+						distance[i] = Math.min(distance[i], a*sx[i] + b*sy[i] + c*sz[i] + d + sr[i]);
+					}
+					for (int i = start; i < end; i++) {
+						distance[i] = Math.min(distance[i], a*bx[i] + b*by[i] + c*bz[i] + d + aa*ex[i] + ab*ey[i] + ac*ez[i]);
+					}
+				}
+			}
+		}
+
+		int visible = 0;
+		for (int i = 0; i < n; i++) {
+			if (distance[i] >= 0) visible++;
+		}
+		m_visibleCount = visible;
+		m_frameObjects += n;
+		m_frameVisible += visible;
+		return visible;
+	}
+
+	/**
+	 * @return true if the object with index i (see add) intersects the frustum; valid after cull()
+	 */
+	public boolean isVisible(int i) {
+		return m_distance[i] >= 0;
+	}
+
+	public int getVisibleCount() {
+		return m_visibleCount;
+	}
+
+	/**
+	 * Ends the frame; the objects culled during the frame are reported by summary().
+	 */
+	public void endFrame() {
+		m_lastObjects = m_frameObjects;
+		m_lastVisible = m_frameVisible;
+		m_frameObjects = m_frameVisible = 0;
+	}
+
+	/**
+	 * One-line summary of the last frame, e.g. for the console; empty if no objects were culled.
+	 */
+	public String summary() {
+		if (m_lastObjects == 0) return "";
+		return String.format(Locale.ROOT, "CPU culling: %d visible, %d culled of %d objects/frame",
+			m_lastVisible, m_lastObjects - m_lastVisible, m_lastObjects);
+	}
+
+	private void allocate(int capacity) {
+		m_sx = resize(m_sx, capacity);
+		m_sy = resize(m_sy, capacity);
+		m_sz = resize(m_sz, capacity);
+		m_sr = resize(m_sr, capacity);
+		m_bx = resize(m_bx, capacity);
+		m_by = resize(m_by, capacity);
+		m_bz = resize(m_bz, capacity);
+		m_ex = resize(m_ex, capacity);
+		m_ey = resize(m_ey, capacity);
+		m_ez = resize(m_ez, capacity);
+		m_distance = resize(m_distance, capacity);
+	}
+
+	private static float[] resize(float[] a, int capacity) {
+		return (a == null) ? new float[capacity] : Arrays.copyOf(a, capacity);
+	}
+}
@@ -0,0 +1,274 @@
+package org.lwjgl.demo.util;
+
+// https://registry.khronos.org/OpenGL/extensions/ARB/ARB_multi_draw_indirect.txt
+// https://registry.khronos.org/OpenGL/extensions/ARB/ARB_indirect_parameters.txt
+
+import static org.lwjgl.opengl.ARBIndirectParameters.glMultiDrawArraysIndirectCountARB;
+import static org.lwjgl.opengl.ARBIndirectParameters.glMultiDrawElementsIndirectCountARB;
+import static org.lwjgl.opengl.GL11C.GL_UNSIGNED_INT;
+import static org.lwjgl.opengl.GL15C.GL_DYNAMIC_COPY;
+import static org.lwjgl.opengl.GL15C.GL_STREAM_DRAW;
+import static org.lwjgl.opengl.GL15C.glBindBuffer;
+import static org.lwjgl.opengl.GL15C.glBufferData;
+import static org.lwjgl.opengl.GL15C.glDeleteBuffers;
+import static org.lwjgl.opengl.GL15C.glGenBuffers;
+import static org.lwjgl.opengl.GL20C.glDeleteProgram;
+import static org.lwjgl.opengl.GL20C.glGetUniformLocation;
+import static org.lwjgl.opengl.GL20C.glUniform4fv;
+import static org.lwjgl.opengl.GL20C.glUseProgram;
+import static org.lwjgl.opengl.GL30C.GL_R32UI;
+import static org.lwjgl.opengl.GL30C.GL_RED_INTEGER;
+import static org.lwjgl.opengl.GL30C.glBindBufferBase;
+import static org.lwjgl.opengl.GL30C.glUniform1ui;
+import static org.lwjgl.opengl.GL40C.GL_DRAW_INDIRECT_BUFFER;
+import static org.lwjgl.opengl.GL42C.GL_COMMAND_BARRIER_BIT;
+import static org.lwjgl.opengl.GL42C.glMemoryBarrier;
+import static org.lwjgl.opengl.GL43C.GL_COMPUTE_SHADER;
+import static org.lwjgl.opengl.GL43C.GL_SHADER_STORAGE_BUFFER;
+import static org.lwjgl.opengl.GL43C.glClearBufferData;
+import static org.lwjgl.opengl.GL43C.glDispatchCompute;
+import static org.lwjgl.opengl.GL43C.glMultiDrawArraysIndirect;
+import static org.lwjgl.opengl.GL43C.glMultiDrawElementsIndirect;
+import static org.lwjgl.opengl.GL46C.GL_PARAMETER_BUFFER;
+import static org.lwjgl.opengl.GL46C.glMultiDrawArraysIndirectCount;
+import static org.lwjgl.opengl.GL46C.glMultiDrawElementsIndirectCount;
+import static org.lwjgl.system.MemoryUtil.memAllocInt;
+import static org.lwjgl.system.MemoryUtil.memFree;
+import static org.lwjgl.system.MemoryUtil.memRealloc;
+
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+
+import org.joml.Matrix4d;
+import org.joml.Matrix4dc;
+import org.joml.Matrix4x3dc;
+import org.joml.Vector4d;
+import org.lwjgl.BufferUtils;
+import org.lwjgl.opengl.GLCapabilities;
+
+/**
+ * Frustum culling of the instanced draws of a frame on the GPU (resources/cull.comp).
+ *
+ * The draws are runs of consecutive instances of one OGLInstanceBuffer, each run drawing one object.
+ * The per-object data of the runs (vertex or index count, first instance, bounding radius) goes into
+ * a shader storage buffer next to the instance buffer, so the Java thread writes nothing per instance;
+ * one compute dispatch per frame finds the run of every instance by a binary search over the first
+ * instances, tests its bounding sphere against the frustum and writes one indirect draw command per
+ * instance. Its baseInstance selects the per-instance attributes, so the instanced program is used
+ * unchanged. Every run is then drawn with one glMultiDraw*Indirect call and the Java thread neither
+ * culls nor reads anything back.
+ *
+ * With OpenGL 4.6 or ARB_indirect_parameters the commands of visible instances are compacted and
+ * counted per run on the GPU (glMultiDraw*IndirectCount), except for runs that have to keep their
+ * order (blended ones); otherwise culled instances get an instanceCount of 0.
+ *
+ * The compute program is submitted as a ShaderProgram and checked by the first cull().
+ */
+public class GPUCuller {
+	private static final int WORKGROUP_SIZE = 64;	// local_size_x of the compute shader
+	private static final int COMMAND_STRIDE = 5*Integer.BYTES;	// DrawElementsIndirectCommand, DrawArraysIndirectCommand padded
+	private static final int RUN_INTS = 4;			// uvec4 per run, see resources/cull.comp
+	private static final int INDEXED = 1, COMPACT = 2;	// run flags
+	private static final int INITIAL_CAPACITY = 64;
+
+	private final boolean m_compact;	// glMultiDraw*IndirectCount available
+	private final boolean m_core46;		// use the core functions instead of the ARB ones
+	private ShaderProgram m_program;	// compiling since the constructor, null once m_PROGRAM is set
+	private int m_PROGRAM;
+	private int u_INSTANCES, u_RUNS, u_INSTANCE_FLOATS, u_PLANES;
+
+	private int m_COMMAND_BUFFER;	// one command per instance, written by the compute shader
+	private int m_COUNT_BUFFER;		// visible instances per run (compact mode)
+	private int m_RUN_BUFFER;		// m_runs
+	private int m_commandCapacity;	// commands
+	private int m_countCapacity;	// counters
+
+	// the runs of the current frame
+	private IntBuffer m_runs = memAllocInt(INITIAL_CAPACITY*RUN_INTS);	// elements, first instance, radius bits, flags
+	private int[] m_runCounts = new int[INITIAL_CAPACITY];				// instances per run
+	private int m_runCount;
+	private int m_instanceCount;
+
+	private final Matrix4d m_PV = new Matrix4d();
+	private final Vector4d m_plane = new Vector4d();
+	private final FloatBuffer m_planes = BufferUtils.createFloatBuffer(6*4);
+
+	public static boolean isSupported(GLCapabilities caps) {
+		return caps.OpenGL43;
+	}
+
+	/**
+	 * @param cache linked programs on disk, may be null
+	 * @param source code of resources/cull.comp
+	 */
+	public GPUCuller(GLCapabilities caps, ShaderCache cache, ByteBuffer source) {
+		m_core46 = caps.OpenGL46;
+		m_compact = caps.OpenGL46 || caps.GL_ARB_indirect_parameters;
+		m_program = new ShaderProgram("cull program", cache).submit(
+			"#version 430\n", new String[0], new int[] { GL_COMPUTE_SHADER }, new ByteBuffer[] { source }
+		);
+
+		m_COMMAND_BUFFER = glGenBuffers();
+		m_COUNT_BUFFER = glGenBuffers();
+		m_RUN_BUFFER = glGenBuffers();
+	}
+
+	/**
+	 * @return false while the program is still compiling (see ShaderProgram.isCompleted())
+	 */
+	public boolean isReady() {
+		return m_program == null || m_program.isCompleted();
+	}
+
+	/**
+	 * Sets the frustum of the following culls (world space, since the instances hold model matrices).
+	 */
+	public void setFrustum(Matrix4dc P, Matrix4x3dc V) {
+		P.mul(V, m_PV);
+		for (int p = 0; p < 6; p++) {
+			m_PV.frustumPlane(p, m_plane);	// normalized
+			m_planes.put(p*4 + 0, (float)m_plane.x);
+			m_planes.put(p*4 + 1, (float)m_plane.y);
+			m_planes.put(p*4 + 2, (float)m_plane.z);
+			m_planes.put(p*4 + 3, (float)m_plane.w);
+		}
+	}
+
+	/**
+	 * Removes the runs of the previous cull().
+	 */
+	public void clear() {
+		m_runCount = 0;
+		m_instanceCount = 0;
+	}
+
+	/**
+	 * Adds a run: the next count instances of the instance buffer (following those of the previous
+	 * runs), all drawing object.
+	 *
+	 * @param ordered the visible instances have to be drawn in instance order (no compaction)
+	 * @return index of the run for draw()
+	 */
+	public int addRun(OGLObject object, int count, boolean ordered) {
+		if (m_runCount == m_runCounts.length) {
+			m_runs = memRealloc(m_runs, m_runs.capacity()*2);
+			m_runCounts = Arrays.copyOf(m_runCounts, m_runCounts.length*2);
+		}
+
+		final int run = m_runCount++;
+		final int r = run*RUN_INTS;
+		m_runs.put(r + 0, object.isIndexed() ? object.getIndexCount() : object.getVertexCount());
+		m_runs.put(r + 1, m_instanceCount);
+		m_runs.put(r + 2, Float.floatToRawIntBits(object.getBoundingRadius()));
+		m_runs.put(r + 3, (object.isIndexed() ? INDEXED : 0) | (m_compact && !ordered ? COMPACT : 0));
+		m_runCounts[run] = count;
+		m_instanceCount += count;
+		return run;
+	}
+
+	/**
+	 * Culls all instances of the runs with one dispatch and writes their draw commands. The instances
+	 * have to be uploaded. Changes the current program; the first cull waits for it if it is not
+	 * completed yet.
+	 */
+	public void cull(OGLInstanceBuffer instances) {
+		if (m_instanceCount == 0) return;
+		if (m_program != null) {
+			m_PROGRAM = m_program.get();
+			m_program = null;
+			u_INSTANCES = glGetUniformLocation(m_PROGRAM, "u_INSTANCES");
+			u_RUNS = glGetUniformLocation(m_PROGRAM, "u_RUNS");
+			u_INSTANCE_FLOATS = glGetUniformLocation(m_PROGRAM, "u_INSTANCE_FLOATS");
+			u_PLANES = glGetUniformLocation(m_PROGRAM, "u_PLANES");
+		}
+		if (instances.getCount() < m_instanceCount) throw new IllegalStateException("Runs exceed the " + instances.getCount() + " instances");
+
+		upload(GL_SHADER_STORAGE_BUFFER, m_RUN_BUFFER, m_runs, m_runCount*RUN_INTS);
+		if (m_instanceCount > m_commandCapacity) {
+			m_commandCapacity = Math.max(m_instanceCount, 2*m_commandCapacity);
+			glBindBuffer(GL_DRAW_INDIRECT_BUFFER, m_COMMAND_BUFFER);
+			glBufferData(GL_DRAW_INDIRECT_BUFFER, (long)m_commandCapacity*COMMAND_STRIDE, GL_DYNAMIC_COPY);
+		}
+		if (m_runCount > m_countCapacity) {
+			m_countCapacity = Math.max(m_runCount, 2*m_countCapacity);
+			glBindBuffer(GL_SHADER_STORAGE_BUFFER, m_COUNT_BUFFER);
+			glBufferData(GL_SHADER_STORAGE_BUFFER, (long)m_countCapacity*Integer.BYTES, GL_DYNAMIC_COPY);
+		}
+		if (m_compact) {
+			glBindBuffer(GL_SHADER_STORAGE_BUFFER, m_COUNT_BUFFER);
+			glClearBufferData(GL_SHADER_STORAGE_BUFFER, GL_R32UI, GL_RED_INTEGER, GL_UNSIGNED_INT, (ByteBuffer)null);
+		}
+
+		glUseProgram(m_PROGRAM);
+		glUniform1ui(u_INSTANCES, m_instanceCount);
+		glUniform1ui(u_RUNS, m_runCount);
+		glUniform1ui(u_INSTANCE_FLOATS, OGLInstanceBuffer.FLOATS_PER_INSTANCE);
+		glUniform4fv(u_PLANES, m_planes);
+
+		glBindBufferBase(GL_SHADER_STORAGE_BUFFER, 0, instances.getBuffer());
+		glBindBufferBase(GL_SHADER_STORAGE_BUFFER, 1, m_COMMAND_BUFFER);
+		glBindBufferBase(GL_SHADER_STORAGE_BUFFER, 2, m_COUNT_BUFFER);
+		glBindBufferBase(GL_SHADER_STORAGE_BUFFER, 3, m_RUN_BUFFER);
+		glDispatchCompute((m_instanceCount + WORKGROUP_SIZE - 1)/WORKGROUP_SIZE, 1, 1);
+
+		// the commands and counters are read by the following indirect draws
+		glMemoryBarrier(GL_COMMAND_BARRIER_BIT);
+	}
+
+	/**
+	 * Draws the visible instances of a run of the last cull() with one indirect draw call. The drawing
+	 * program, the vertex array of the object of the run and the instance attributes (starting at
+	 * instance 0) have to be set up.
+	 */
+	public void draw(int run, int mode) {
+		final int first = m_runs.get(run*RUN_INTS + 1);
+		final int flags = m_runs.get(run*RUN_INTS + 3);
+		final int count = m_runCounts[run];
+		final long indirect = (long)first*COMMAND_STRIDE;
+		final boolean indexed = (flags & INDEXED) != 0;
+
+		glBindBuffer(GL_DRAW_INDIRECT_BUFFER, m_COMMAND_BUFFER);
+		if ((flags & COMPACT) != 0) {
+			final long drawCount = (long)run*Integer.BYTES;
+			glBindBuffer(GL_PARAMETER_BUFFER, m_COUNT_BUFFER);
+			if (indexed) {
+				if (m_core46) {
+					glMultiDrawElementsIndirectCount(mode, GL_UNSIGNED_INT, indirect, drawCount, count, COMMAND_STRIDE);
+				} else {
+					glMultiDrawElementsIndirectCountARB(mode, GL_UNSIGNED_INT, indirect, drawCount, count, COMMAND_STRIDE);
+				}
+			} else {
+				if (m_core46) {
+					glMultiDrawArraysIndirectCount(mode, indirect, drawCount, count, COMMAND_STRIDE);
+				} else {
+					glMultiDrawArraysIndirectCountARB(mode, indirect, drawCount, count, COMMAND_STRIDE);
+				}
+			}
+		} else if (indexed) {
+			glMultiDrawElementsIndirect(mode, GL_UNSIGNED_INT, indirect, count, COMMAND_STRIDE);
+		} else {
+			glMultiDrawArraysIndirect(mode, indirect, count, COMMAND_STRIDE);
+		}
+	}
+
+	public void free() {
+		if (m_program != null) m_program.free();
+		glDeleteProgram(m_PROGRAM);
+		m_program = null;
+		m_PROGRAM = 0;
+		glDeleteBuffers(new int[] { m_COMMAND_BUFFER, m_COUNT_BUFFER, m_RUN_BUFFER });
+		m_COMMAND_BUFFER = m_COUNT_BUFFER = m_RUN_BUFFER = 0;
+		memFree(m_runs);
+		m_runs = null;
+	}
+
+	// orphans the previous storage, so this never waits for the GPU
+	private static void upload(int target, int buffer, IntBuffer data, int count) {
+		data.limit(count);
+		glBindBuffer(target, buffer);
+		glBufferData(target, data, GL_STREAM_DRAW);
+		data.clear();
+	}
+}
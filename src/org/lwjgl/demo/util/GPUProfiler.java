@@ -0,0 +1,227 @@
+package org.lwjgl.demo.util;
+
+// https://registry.khronos.org/OpenGL/extensions/ARB/ARB_timer_query.txt
+// https://registry.khronos.org/OpenGL/extensions/ARB/ARB_pipeline_statistics_query.txt
+
+import static org.lwjgl.opengl.ARBPipelineStatisticsQuery.GL_FRAGMENT_SHADER_INVOCATIONS_ARB;
+import static org.lwjgl.opengl.ARBPipelineStatisticsQuery.GL_VERTEX_SHADER_INVOCATIONS_ARB;
+import static org.lwjgl.opengl.GL11C.GL_FALSE;
+import static org.lwjgl.opengl.GL15C.GL_QUERY_RESULT;
+import static org.lwjgl.opengl.GL15C.GL_QUERY_RESULT_AVAILABLE;
+import static org.lwjgl.opengl.GL15C.glBeginQuery;
+import static org.lwjgl.opengl.GL15C.glDeleteQueries;
+import static org.lwjgl.opengl.GL15C.glEndQuery;
+import static org.lwjgl.opengl.GL15C.glGenQueries;
+import static org.lwjgl.opengl.GL15C.glGetQueryObjecti;
+import static org.lwjgl.opengl.GL33C.GL_TIMESTAMP;
+import static org.lwjgl.opengl.GL33C.GL_TIME_ELAPSED;
+import static org.lwjgl.opengl.GL33C.glGetQueryObjecti64;
+import static org.lwjgl.opengl.GL33C.glQueryCounter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import org.lwjgl.opengl.GLCapabilities;
+
+/**
+ * GPU time of named scopes (e.g. "pentagons", "gear 1") measured with GL_TIME_ELAPSED queries,
+ * optionally with vertex and fragment shader invocation counts (ARB_pipeline_statistics_query).
+ *
+ * The queries of the last FRAMES_IN_FLIGHT frames sit in a ring. Results are read when a slot
+ * is reused and only if they are already available, so reading never stalls the pipeline.
+ * Scopes must not be nested and each scope can be used once per frame.
+ */
+public class GPUProfiler {
+	private static final int FRAMES_IN_FLIGHT = 4;
+	private static final int MAX_SCOPES = 32;
+
+	private final boolean m_enabled;
+	private final boolean m_pipelineStats;
+	private final List<String> m_names = new ArrayList<>();
+
+	// query names per ring slot: [slot][scope]
+	private final int[][] m_timeQueries = new int[FRAMES_IN_FLIGHT][MAX_SCOPES];
+	private final int[][] m_vertexQueries = new int[FRAMES_IN_FLIGHT][MAX_SCOPES];
+	private final int[][] m_fragmentQueries = new int[FRAMES_IN_FLIGHT][MAX_SCOPES];
+	private final boolean[][] m_issued = new boolean[FRAMES_IN_FLIGHT][MAX_SCOPES];
+	private final int[][] m_frameQueries = new int[FRAMES_IN_FLIGHT][2];	// timestamps at frame begin and end
+	private final boolean[] m_frameIssued = new boolean[FRAMES_IN_FLIGHT];
+
+	// latest available results
+	private final long[] m_nanos = new long[MAX_SCOPES];
+	private final long[] m_vertexInvocations = new long[MAX_SCOPES];
+	private final long[] m_fragmentInvocations = new long[MAX_SCOPES];
+	private long m_frameNanos;
+
+	private long m_frame;
+	private int m_slot;
+	private int m_activeScope = -1;
+
+	/**
+	 * @param enabled		profile at all; a disabled profiler ignores all calls
+	 * @param pipelineStats	also count shader invocations, if the extension is available
+	 */
+	public GPUProfiler(GLCapabilities caps, boolean enabled, boolean pipelineStats) {
+		m_enabled = enabled && (caps.OpenGL33 || caps.GL_ARB_timer_query);
+		m_pipelineStats = m_enabled && pipelineStats && caps.GL_ARB_pipeline_statistics_query;
+
+		if (m_enabled) {
+			for (int s = 0; s < FRAMES_IN_FLIGHT; s++) {
+				glGenQueries(m_timeQueries[s]);
+				glGenQueries(m_frameQueries[s]);
+				if (m_pipelineStats) {
+					glGenQueries(m_vertexQueries[s]);
+					glGenQueries(m_fragmentQueries[s]);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Creates a profiler configured by the system properties ogl.gpu.profile and ogl.gpu.pipelineStats.
+	 */
+	public static GPUProfiler fromSystemProperties(GLCapabilities caps) {
+		return new GPUProfiler(caps, Boolean.getBoolean("ogl.gpu.profile"), Boolean.getBoolean("ogl.gpu.pipelineStats"));
+	}
+
+	public boolean isEnabled() {
+		return m_enabled;
+	}
+
+	/**
+	 * Registers a named scope (at initialization time).
+	 * @return scope id used in begin()
+	 */
+	public int scope(String name) {
+		int id = m_names.indexOf(name);
+		if (id < 0) {
+			if (m_names.size() == MAX_SCOPES) throw new IllegalStateException("Too many profiler scopes");
+			id = m_names.size();
+			m_names.add(name);
+		}
+		return id;
+	}
+
+	public void beginFrame() {
+		if (!m_enabled) return;
+
+		m_slot = (int)(m_frame % FRAMES_IN_FLIGHT);
+		collect(m_slot);
+
+		glQueryCounter(m_frameQueries[m_slot][0], GL_TIMESTAMP);
+	}
+
+	public void endFrame() {
+		if (!m_enabled) return;
+
+		glQueryCounter(m_frameQueries[m_slot][1], GL_TIMESTAMP);
+		m_frameIssued[m_slot] = true;
+		m_frame++;
+	}
+
+	public void begin(int scope) {
+		if (!m_enabled) return;
+		if (m_activeScope >= 0) throw new IllegalStateException("GPU profiler scopes must not be nested");
+
+		m_activeScope = scope;
+		glBeginQuery(GL_TIME_ELAPSED, m_timeQueries[m_slot][scope]);
+		if (m_pipelineStats) {
+			glBeginQuery(GL_VERTEX_SHADER_INVOCATIONS_ARB, m_vertexQueries[m_slot][scope]);
+			glBeginQuery(GL_FRAGMENT_SHADER_INVOCATIONS_ARB, m_fragmentQueries[m_slot][scope]);
+		}
+	}
+
+	public void end() {
+		if (!m_enabled) return;
+
+		glEndQuery(GL_TIME_ELAPSED);
+		if (m_pipelineStats) {
+			glEndQuery(GL_VERTEX_SHADER_INVOCATIONS_ARB);
+			glEndQuery(GL_FRAGMENT_SHADER_INVOCATIONS_ARB);
+		}
+		m_issued[m_slot][m_activeScope] = true;
+		m_activeScope = -1;
+	}
+
+	/**
+	 * @return GPU time of the scope [ns], a few frames old
+	 */
+	public long getNanos(int scope) {
+		return m_nanos[scope];
+	}
+
+	public long getVertexInvocations(int scope) {
+		return m_vertexInvocations[scope];
+	}
+
+	public long getFragmentInvocations(int scope) {
+		return m_fragmentInvocations[scope];
+	}
+
+	/**
+	 * @return GPU time between the begin and the end of a frame [ns], a few frames old
+	 */
+	public long getFrameNanos() {
+		return m_frameNanos;
+	}
+
+	/**
+	 * One-line summary of the latest results, e.g. for the console.
+	 */
+	public String summary() {
+		if (!m_enabled) return "";
+
+		StringBuilder sb = new StringBuilder(String.format(Locale.ROOT, "GPU frame %.2f ms", m_frameNanos/1e6));
+		for (int i = 0; i < m_names.size(); i++) {
+			sb.append(String.format(Locale.ROOT, ", %s %.3f ms", m_names.get(i), m_nanos[i]/1e6));
+			if (m_pipelineStats) {
+				sb.append(String.format(Locale.ROOT, " (%d vs, %d fs)", m_vertexInvocations[i], m_fragmentInvocations[i]));
+			}
+		}
+		return sb.toString();
+	}
+
+	public void free() {
+		if (!m_enabled) return;
+
+		for (int s = 0; s < FRAMES_IN_FLIGHT; s++) {
+			glDeleteQueries(m_timeQueries[s]);
+			glDeleteQueries(m_frameQueries[s]);
+			if (m_pipelineStats) {
+				glDeleteQueries(m_vertexQueries[s]);
+				glDeleteQueries(m_fragmentQueries[s]);
+			}
+		}
+	}
+
+	// reads the results of a ring slot before it is reused, but only those that are already available;
+	// each query is checked on its own, the queries of a scope need not become available together
+	private void collect(int slot) {
+		if (m_frameIssued[slot] && isAvailable(m_frameQueries[slot][0]) && isAvailable(m_frameQueries[slot][1])) {
+			m_frameNanos = glGetQueryObjecti64(m_frameQueries[slot][1], GL_QUERY_RESULT)
+				- glGetQueryObjecti64(m_frameQueries[slot][0], GL_QUERY_RESULT);
+		}
+		m_frameIssued[slot] = false;
+
+		for (int i = 0; i < m_names.size(); i++) {
+			if (m_issued[slot][i]) {
+				m_nanos[i] = result(m_timeQueries[slot][i], m_nanos[i]);
+				if (m_pipelineStats) {
+					m_vertexInvocations[i] = result(m_vertexQueries[slot][i], m_vertexInvocations[i]);
+					m_fragmentInvocations[i] = result(m_fragmentQueries[slot][i], m_fragmentInvocations[i]);
+				}
+			}
+			m_issued[slot][i] = false;
+		}
+	}
+
+	// the result of query, or the previous one if it is still pending
+	private static long result(int query, long previous) {
+		return isAvailable(query) ? glGetQueryObjecti64(query, GL_QUERY_RESULT) : previous;
+	}
+
+	private static boolean isAvailable(int query) {
+		return glGetQueryObjecti(query, GL_QUERY_RESULT_AVAILABLE) != GL_FALSE;
+	}
+}
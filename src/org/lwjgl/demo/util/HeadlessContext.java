@@ -0,0 +1,219 @@
+package org.lwjgl.demo.util;
+
+// https://registry.khronos.org/EGL/extensions/MESA/EGL_MESA_platform_surfaceless.txt
+
+import static org.lwjgl.egl.EGL10.EGL_DEPTH_SIZE;
+import static org.lwjgl.egl.EGL10.EGL_NONE;
+import static org.lwjgl.egl.EGL10.EGL_NO_CONTEXT;
+import static org.lwjgl.egl.EGL10.EGL_NO_DISPLAY;
+import static org.lwjgl.egl.EGL10.EGL_NO_SURFACE;
+import static org.lwjgl.egl.EGL10.eglChooseConfig;
+import static org.lwjgl.egl.EGL10.eglCreateContext;
+import static org.lwjgl.egl.EGL10.eglDestroyContext;
+import static org.lwjgl.egl.EGL10.eglGetDisplay;
+import static org.lwjgl.egl.EGL10.eglGetError;
+import static org.lwjgl.egl.EGL10.eglGetProcAddress;
+import static org.lwjgl.egl.EGL10.eglInitialize;
+import static org.lwjgl.egl.EGL10.eglMakeCurrent;
+import static org.lwjgl.egl.EGL10.eglTerminate;
+import static org.lwjgl.egl.EGL12.EGL_RENDERABLE_TYPE;
+import static org.lwjgl.egl.EGL12.eglBindAPI;
+import static org.lwjgl.egl.EGL14.EGL_OPENGL_API;
+import static org.lwjgl.egl.EGL14.EGL_OPENGL_BIT;
+import static org.lwjgl.egl.EGL15.EGL_CONTEXT_MAJOR_VERSION;
+import static org.lwjgl.egl.EGL15.EGL_CONTEXT_MINOR_VERSION;
+import static org.lwjgl.egl.EGL15.EGL_CONTEXT_OPENGL_CORE_PROFILE_BIT;
+import static org.lwjgl.egl.EGL15.EGL_CONTEXT_OPENGL_PROFILE_MASK;
+import static org.lwjgl.egl.EXTPlatformBase.eglGetPlatformDisplayEXT;
+import static org.lwjgl.opengl.GL11C.GL_RGBA;
+import static org.lwjgl.opengl.GL11C.GL_UNSIGNED_BYTE;
+import static org.lwjgl.opengl.GL11C.glFinish;
+import static org.lwjgl.opengl.GL11C.glReadPixels;
+import static org.lwjgl.opengl.GL11C.GL_RGBA8;
+import static org.lwjgl.opengl.GL14C.GL_DEPTH_COMPONENT24;
+import static org.lwjgl.opengl.GL30C.GL_COLOR_ATTACHMENT0;
+import static org.lwjgl.opengl.GL30C.GL_DEPTH_ATTACHMENT;
+import static org.lwjgl.opengl.GL30C.GL_FRAMEBUFFER;
+import static org.lwjgl.opengl.GL30C.GL_FRAMEBUFFER_COMPLETE;
+import static org.lwjgl.opengl.GL30C.GL_RENDERBUFFER;
+import static org.lwjgl.opengl.GL30C.glBindFramebuffer;
+import static org.lwjgl.opengl.GL30C.glBindRenderbuffer;
+import static org.lwjgl.opengl.GL30C.glCheckFramebufferStatus;
+import static org.lwjgl.opengl.GL30C.glDeleteFramebuffers;
+import static org.lwjgl.opengl.GL30C.glDeleteRenderbuffers;
+import static org.lwjgl.opengl.GL30C.glFramebufferRenderbuffer;
+import static org.lwjgl.opengl.GL30C.glGenFramebuffers;
+import static org.lwjgl.opengl.GL30C.glGenRenderbuffers;
+import static org.lwjgl.opengl.GL30C.glRenderbufferStorage;
+import static org.lwjgl.stb.STBImageWrite.stbi_flip_vertically_on_write;
+import static org.lwjgl.stb.STBImageWrite.stbi_write_png;
+import static org.lwjgl.system.MemoryStack.stackPush;
+import static org.lwjgl.system.MemoryUtil.memAlloc;
+import static org.lwjgl.system.MemoryUtil.memFree;
+import static org.lwjgl.system.MemoryUtil.NULL;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+
+import org.lwjgl.PointerBuffer;
+import org.lwjgl.egl.EGL;
+import org.lwjgl.opengl.GL;
+import org.lwjgl.system.Configuration;
+import org.lwjgl.system.MemoryStack;
+
+/**
+ * Window-less OpenGL context for build and render servers without a display.
+ *
+ * A surfaceless EGL display (Mesa llvmpipe works) provides the context, all
+ * rendering goes into a framebuffer object of the requested size.
+ */
+public class HeadlessContext implements AutoCloseable {
+	private static final int EGL_PLATFORM_SURFACELESS_MESA = 0x31DD;
+
+	private final int m_width, m_height;
+	private long m_display;		// EGL display handle
+	private long m_context;		// EGL context handle
+	private int m_FBO;			// OpenGL framebuffer and its attachments
+	private int m_COLOR_RBO;
+	private int m_DEPTH_RBO;
+
+	public HeadlessContext(int width, int height) {
+		m_width = width;
+		m_height = height;
+
+		createContext();
+
+		// load OpenGL entry points through EGL instead of GLX
+		Configuration.OPENGL_EXPLICIT_INIT.set(true);
+		GL.create(name -> eglGetProcAddress(name));
+		GL.createCapabilities();
+
+		createFramebuffer();
+	}
+
+	public int getWidth() {
+		return m_width;
+	}
+
+	public int getHeight() {
+		return m_height;
+	}
+
+	/**
+	 * Makes the offscreen framebuffer the render target.
+	 */
+	public void bind() {
+		glBindFramebuffer(GL_FRAMEBUFFER, m_FBO);
+	}
+
+	/**
+	 * Writes the current content of the color attachment to a PNG file.
+	 */
+	public void writePNG(String fileName) {
+		ByteBuffer pixels = memAlloc(m_width*m_height*4);
+		try {
+			bind();
+			glFinish();
+			glReadPixels(0, 0, m_width, m_height, GL_RGBA, GL_UNSIGNED_BYTE, pixels);
+
+			stbi_flip_vertically_on_write(true); // OpenGL rows start at the bottom
+			if (!stbi_write_png(fileName, m_width, m_height, 4, pixels, m_width*4)) {
+				throw new RuntimeException("Failed to write " + fileName);
+			}
+		} finally {
+			memFree(pixels);
+		}
+	}
+
+	@Override
+	public void close() {
+		glBindFramebuffer(GL_FRAMEBUFFER, 0);
+		glDeleteFramebuffers(m_FBO);
+		glDeleteRenderbuffers(m_COLOR_RBO);
+		glDeleteRenderbuffers(m_DEPTH_RBO);
+
+		GL.setCapabilities(null);
+		GL.destroy();
+
+		eglMakeCurrent(m_display, EGL_NO_SURFACE, EGL_NO_SURFACE, EGL_NO_CONTEXT);
+		eglDestroyContext(m_display, m_context);
+		eglTerminate(m_display);
+		EGL.destroy();
+	}
+
+	private void createContext() {
+		// prefer the surfaceless platform, otherwise let the driver choose
+		if (EGL.getCapabilities().EGL_EXT_platform_base) {
+			m_display = eglGetPlatformDisplayEXT(EGL_PLATFORM_SURFACELESS_MESA, NULL, (IntBuffer)null);
+		}
+		if (m_display == EGL_NO_DISPLAY) {
+			m_display = eglGetDisplay(NULL);
+		}
+		if (m_display == EGL_NO_DISPLAY) {
+			throw new IllegalStateException("Unable to get an EGL display");
+		}
+
+		try (MemoryStack stack = stackPush()) {
+			IntBuffer major = stack.mallocInt(1);
+			IntBuffer minor = stack.mallocInt(1);
+
+			if (!eglInitialize(m_display, major, minor)) {
+				throw new IllegalStateException(String.format("Unable to initialize EGL [0x%X]", eglGetError()));
+			}
+			EGL.createDisplayCapabilities(m_display, major.get(0), minor.get(0));
+			System.err.println("EGL_VERSION: " + major.get(0) + "." + minor.get(0));
+
+			if (!eglBindAPI(EGL_OPENGL_API)) {
+				throw new IllegalStateException("EGL does not support desktop OpenGL");
+			}
+
+			// a config is only needed to select desktop OpenGL; there is no surface
+			PointerBuffer config = stack.mallocPointer(1);
+			IntBuffer numConfigs = stack.mallocInt(1);
+			IntBuffer attribs = stack.ints(
+				EGL_RENDERABLE_TYPE, EGL_OPENGL_BIT,
+				EGL_DEPTH_SIZE, 24,
+				EGL_NONE
+			);
+			if (!eglChooseConfig(m_display, attribs, config, numConfigs) || numConfigs.get(0) == 0) {
+				throw new IllegalStateException("No suitable EGL config found");
+			}
+
+			// 3.3 core profile, like the windowed contexts (same values as EGL_KHR_create_context before EGL 1.5)
+			IntBuffer contextAttribs = stack.ints(
+				EGL_CONTEXT_MAJOR_VERSION, 3,
+				EGL_CONTEXT_MINOR_VERSION, 3,
+				EGL_CONTEXT_OPENGL_PROFILE_MASK, EGL_CONTEXT_OPENGL_CORE_PROFILE_BIT,
+				EGL_NONE
+			);
+			m_context = eglCreateContext(m_display, config.get(0), EGL_NO_CONTEXT, contextAttribs);
+			if (m_context == EGL_NO_CONTEXT) {
+				throw new IllegalStateException(String.format("Failed to create the EGL context [0x%X]", eglGetError()));
+			}
+		}
+
+		if (!eglMakeCurrent(m_display, EGL_NO_SURFACE, EGL_NO_SURFACE, m_context)) {
+			throw new IllegalStateException(String.format("Failed to make the EGL context current [0x%X]", eglGetError()));
+		}
+	}
+
+	private void createFramebuffer() {
+		m_COLOR_RBO = glGenRenderbuffers();
+		glBindRenderbuffer(GL_RENDERBUFFER, m_COLOR_RBO);
+		glRenderbufferStorage(GL_RENDERBUFFER, GL_RGBA8, m_width, m_height);
+
+		m_DEPTH_RBO = glGenRenderbuffers();
+		glBindRenderbuffer(GL_RENDERBUFFER, m_DEPTH_RBO);
+		glRenderbufferStorage(GL_RENDERBUFFER, GL_DEPTH_COMPONENT24, m_width, m_height);
+		glBindRenderbuffer(GL_RENDERBUFFER, 0);
+
+		m_FBO = glGenFramebuffers();
+		glBindFramebuffer(GL_FRAMEBUFFER, m_FBO);
+		glFramebufferRenderbuffer(GL_FRAMEBUFFER, GL_COLOR_ATTACHMENT0, GL_RENDERBUFFER, m_COLOR_RBO);
+		glFramebufferRenderbuffer(GL_FRAMEBUFFER, GL_DEPTH_ATTACHMENT, GL_RENDERBUFFER, m_DEPTH_RBO);
+
+		if (glCheckFramebufferStatus(GL_FRAMEBUFFER) != GL_FRAMEBUFFER_COMPLETE) {
+			throw new IllegalStateException("Offscreen framebuffer is incomplete");
+		}
+	}
+}
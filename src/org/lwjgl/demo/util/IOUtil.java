@@ -7,6 +7,7 @@ package org.lwjgl.demo.util;
 import org.lwjgl.*;
 
 import java.io.*;
+import java.net.*;
 import java.nio.*;
 import java.nio.channels.*;
 import java.nio.file.*;
@@ -30,7 +31,7 @@ public final class IOUtil {
     *Reads the specified resource and returns the raw data as a ByteBuffer.
      *
     *@param resource   the resource to read
-    *@param bufferSize the initial buffer size
+    *@param bufferSize the initial buffer size, only used if the size of a class path resource is unknown
      *
     *@return the resource data
      *
@@ -41,33 +42,73 @@ public final class IOUtil {
 
         Path path = Paths.get(resource);
         if (Files.isReadable(path)) {
-            try (SeekableByteChannel fc = Files.newByteChannel(path)) {
-                buffer = BufferUtils.createByteBuffer((int)fc.size() + 1);
-                while (fc.read(buffer) != -1) {
-                    ;
-                }
+            try (FileChannel fc = FileChannel.open(path, StandardOpenOption.READ)) {
+                buffer = readFully(fc, createByteBuffer((int)fc.size()));
             }
         } else {
-            try (
-                InputStream source = IOUtil.class.getClassLoader().getResourceAsStream(resource);
-                ReadableByteChannel rbc = Channels.newChannel(source)
-            ) {
-                buffer = createByteBuffer(bufferSize);
+            buffer = readClasspathResource(resource, bufferSize);
+        }
+
+        return memSlice(buffer);
+    }
+
+    /**
+    *Returns the content of the specified resource without copying it, if possible: files are memory-mapped
+    *read-only, class path resources (e.g. jar entries) are read in one pass into a buffer of their known size.
+     *
+    *@param resource the resource to read
+     *
+    *@return the read-only resource data, valid as long as the buffer is reachable
+     *
+    *@throws IOException if an IO error occurs
+     */
+    public static ByteBuffer ioResourceMap(String resource) throws IOException {
+        Path path = Paths.get(resource);
+        if (Files.isReadable(path)) {
+            try (FileChannel fc = FileChannel.open(path, StandardOpenOption.READ)) {
+                // the mapping stays valid after the channel is closed
+                return fc.map(FileChannel.MapMode.READ_ONLY, 0, fc.size());
+            }
+        }
+        return readClasspathResource(resource, 4096).asReadOnlyBuffer();
+    }
 
-                while (true) {
-                    int bytes = rbc.read(buffer);
-                    if (bytes == -1) {
-                        break;
-                    }
-                    if (buffer.remaining() == 0) {
-                        buffer = resizeBuffer(buffer, buffer.capacity()*3/2); // 50%
-                    }
+    private static ByteBuffer readClasspathResource(String resource, int bufferSize) throws IOException {
+        URL url = IOUtil.class.getClassLoader().getResource(resource);
+        if (url == null) {
+            throw new FileNotFoundException(resource);
+        }
+
+        URLConnection connection = url.openConnection();
+        long size = connection.getContentLengthLong();	// the entry size for jar entries
+        try (ReadableByteChannel rbc = Channels.newChannel(connection.getInputStream())) {
+            if (0 <= size && size <= Integer.MAX_VALUE) {
+                return readFully(rbc, createByteBuffer((int)size));
+            }
+
+            ByteBuffer buffer = createByteBuffer(bufferSize);
+            while (true) {
+                int bytes = rbc.read(buffer);
+                if (bytes == -1) {
+                    break;
+                }
+                if (buffer.remaining() == 0) {
+                    buffer = resizeBuffer(buffer, buffer.capacity()*3/2); // 50%
                 }
             }
+            buffer.flip();
+            return buffer;
         }
+    }
 
+    private static ByteBuffer readFully(ReadableByteChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) == -1) {
+                throw new EOFException("Resource ended after " + buffer.position() + " of " + buffer.capacity() + " bytes");
+            }
+        }
         buffer.flip();
-        return memSlice(buffer);
+        return buffer;
     }
 
-}
\ No newline at end of file
+}
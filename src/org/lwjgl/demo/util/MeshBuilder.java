@@ -0,0 +1,260 @@
+package org.lwjgl.demo.util;
+
+import static org.lwjgl.system.MemoryUtil.memAllocFloat;
+import static org.lwjgl.system.MemoryUtil.memAllocInt;
+import static org.lwjgl.system.MemoryUtil.memFree;
+import static org.lwjgl.system.MemoryUtil.memRealloc;
+
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.util.ArrayDeque;
+
+/**
+ * Off-heap vertex positions, normals and (optional) indices of a mesh under construction.
+ * The storage grows geometrically, so meshes of any size can be built without guessing their size.
+ *
+ * Builders are pooled per thread: acquire() reuses the storage of closed builders, so rebuilding
+ * meshes does not allocate once the pool is warm. Typical use:
+ * <pre>
+ * try (MeshBuilder mesh = MeshBuilder.acquire()) {
+ *     mesh.normal(0, 0, 1).vertex(-1, -1, 0).vertex(1, -1, 0).vertex(0, 1, 0);
+ *     bindBuffers(mesh);
+ * }
+ * </pre>
+ */
+public class MeshBuilder implements AutoCloseable {
+	private static final int INITIAL_VERTICES = 256;
+	private static final int POOL_SIZE = 4;		// builders kept per thread
+	private static final ThreadLocal<ArrayDeque<MeshBuilder>> s_pool = ThreadLocal.withInitial(ArrayDeque::new);
+
+	private FloatBuffer m_positions;	// 3 floats per vertex
+	private FloatBuffer m_normals;		// 3 floats per vertex
+	private IntBuffer m_indices;		// allocated on first use
+	private int m_vertexCount;
+	private int m_indexCount;
+	private final float[] m_vertex = new float[3];	// staging for bulk puts
+	private final float[] m_normal = new float[3];	// current normal
+	private boolean m_pooled;			// acquired from the pool and not yet returned
+	private boolean m_closed;			// close() was called, later calls do nothing
+	private VertexWelder m_welder;		// created on first use
+
+	/**
+	 * Creates a builder that is not pooled; free() has to be called.
+	 */
+	public MeshBuilder(int vertexCapacity) {
+		m_positions = memAllocFloat(Math.max(1, vertexCapacity)*3);
+		m_normals = memAllocFloat(Math.max(1, vertexCapacity)*3);
+	}
+
+	/**
+	 * @return an empty builder from the pool of this thread; close() returns it
+	 */
+	public static MeshBuilder acquire() {
+		MeshBuilder mesh = s_pool.get().poll();
+		if (mesh == null) mesh = new MeshBuilder(INITIAL_VERTICES);
+		mesh.m_pooled = true;
+		mesh.m_closed = false;
+		return mesh;
+	}
+
+	/**
+	 * Frees the storage of all pooled builders of this thread.
+	 */
+	public static void freePool() {
+		ArrayDeque<MeshBuilder> pool = s_pool.get();
+		while (!pool.isEmpty()) {
+			pool.poll().free();
+		}
+	}
+
+	public int getVertexCount() {
+		return m_vertexCount;
+	}
+
+	public int getIndexCount() {
+		return m_indexCount;
+	}
+
+	public boolean isIndexed() {
+		return m_indexCount > 0;
+	}
+
+	/**
+	 * @return positions, valid for absolute access up to getVertexCount()*3 until the next vertex is added
+	 */
+	public FloatBuffer getPositions() {
+		return m_positions;
+	}
+
+	/**
+	 * @return normals, valid for absolute access up to getVertexCount()*3 until the next vertex is added
+	 */
+	public FloatBuffer getNormals() {
+		return m_normals;
+	}
+
+	/**
+	 * @return indices, valid for absolute access up to getIndexCount() until the next index is added
+	 */
+	public IntBuffer getIndices() {
+		return m_indices;
+	}
+
+	/**
+	 * Removes all vertices and indices, the storage is kept.
+	 */
+	public MeshBuilder clear() {
+		m_vertexCount = 0;
+		m_indexCount = 0;
+		return this;
+	}
+
+	/**
+	 * Sets the normal of the following vertices.
+	 */
+	public MeshBuilder normal(float x, float y, float z) {
+		m_normal[0] = x;
+		m_normal[1] = y;
+		m_normal[2] = z;
+		return this;
+	}
+
+	/**
+	 * Adds a vertex with the current normal.
+	 */
+	public MeshBuilder vertex(float x, float y, float z) {
+		ensureVertexCapacity(m_vertexCount + 1);
+
+		m_vertex[0] = x;
+		m_vertex[1] = y;
+		m_vertex[2] = z;
+		m_positions.put(m_vertexCount*3, m_vertex, 0, 3);
+		m_normals.put(m_vertexCount*3, m_normal, 0, 3);
+		m_vertexCount++;
+		return this;
+	}
+
+	/**
+	 * Adds count vertices at once; positions and normals hold 3 floats per vertex.
+	 */
+	public MeshBuilder vertices(float[] positions, float[] normals, int count) {
+		ensureVertexCapacity(m_vertexCount + count);
+
+		m_positions.put(m_vertexCount*3, positions, 0, count*3);
+		m_normals.put(m_vertexCount*3, normals, 0, count*3);
+		m_vertexCount += count;
+		return this;
+	}
+
+	/**
+	 * Sets the number of vertices, e.g. before they are written with setVertex().
+	 */
+	public MeshBuilder resize(int vertexCount) {
+		ensureVertexCapacity(vertexCount);
+		m_vertexCount = vertexCount;
+		return this;
+	}
+
+	/**
+	 * Overwrites an existing vertex. Different threads may write different vertices at the same time.
+	 */
+	public void setVertex(int vertex, float x, float y, float z, float nx, float ny, float nz) {
+		m_positions.put(vertex*3 + 0, x);
+		m_positions.put(vertex*3 + 1, y);
+		m_positions.put(vertex*3 + 2, z);
+		m_normals.put(vertex*3 + 0, nx);
+		m_normals.put(vertex*3 + 1, ny);
+		m_normals.put(vertex*3 + 2, nz);
+	}
+
+	public MeshBuilder index(int index) {
+		ensureIndexCapacity(m_indexCount + 1);
+		m_indices.put(m_indexCount++, index);
+		return this;
+	}
+
+	public MeshBuilder triangle(int a, int b, int c) {
+		ensureIndexCapacity(m_indexCount + 3);
+		m_indices.put(m_indexCount++, a);
+		m_indices.put(m_indexCount++, b);
+		m_indices.put(m_indexCount++, c);
+		return this;
+	}
+
+	/**
+	 * Turns the vertices, an unindexed triangle list, into an indexed mesh (see MeshIndexer).
+	 * Vertices closer than VertexWelder.DEFAULT_EPSILON times the size of the mesh are merged.
+	 */
+	public MeshBuilder indexTriangles() {
+		ensureIndexCapacity(m_vertexCount);
+		m_indexCount = m_vertexCount;
+		m_vertexCount = MeshIndexer.index(getWelder(), m_positions, m_normals, m_indexCount, m_indices);
+		return this;
+	}
+
+	/**
+	 * Smooths the normals of the vertices first .. first + count - 1 (see VertexWelder.smoothNormals).
+	 */
+	public MeshBuilder smoothNormals(int first, int count, double maxAngle) {
+		getWelder().smoothNormals(m_positions, m_normals, first, count, maxAngle);
+		return this;
+	}
+
+	public void ensureVertexCapacity(int vertexCount) {
+		if (vertexCount*3 > m_positions.capacity()) {
+			final int capacity = grow(m_positions.capacity(), vertexCount*3);
+			m_positions = memRealloc(m_positions, capacity);
+			m_normals = memRealloc(m_normals, capacity);
+		}
+	}
+
+	public void ensureIndexCapacity(int indexCount) {
+		if (m_indices == null) {
+			m_indices = memAllocInt(grow(INITIAL_VERTICES, indexCount));
+		} else if (indexCount > m_indices.capacity()) {
+			m_indices = memRealloc(m_indices, grow(m_indices.capacity(), indexCount));
+		}
+	}
+
+	/**
+	 * Returns a pooled builder to the pool of this thread, other builders are freed.
+	 * Only the first call has an effect, so a builder never ends up in the pool twice.
+	 */
+	@Override
+	public void close() {
+		if (m_closed) return;
+		m_closed = true;
+		clear();
+		ArrayDeque<MeshBuilder> pool = s_pool.get();
+		if (m_pooled && pool.size() < POOL_SIZE) {
+			m_pooled = false;
+			pool.push(this);
+		} else {
+			free();
+		}
+	}
+
+	/**
+	 * Frees the storage; further calls do nothing.
+	 */
+	public void free() {
+		if (m_positions == null) return;
+		m_pooled = false;
+		memFree(m_positions);
+		memFree(m_normals);
+		if (m_indices != null) memFree(m_indices);
+		m_positions = null;
+		m_normals = null;
+		m_indices = null;
+	}
+
+	private VertexWelder getWelder() {
+		if (m_welder == null) m_welder = new VertexWelder(VertexWelder.DEFAULT_EPSILON);
+		return m_welder;
+	}
+
+	private static int grow(int capacity, int required) {
+		// double, but at least the required size; memRealloc keeps the content
+		return Math.max(required, (int)Math.min(Integer.MAX_VALUE - 8, 2L*capacity));
+	}
+}
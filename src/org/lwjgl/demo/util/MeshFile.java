@@ -0,0 +1,289 @@
+package org.lwjgl.demo.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+import org.joml.Vector3f;
+import org.joml.Vector3fc;
+
+/**
+ * Binary container of the GPU-ready buffers of an OGLObject (*.oglm). Loading maps the file and
+ * hands the blobs to glBufferData as they are: no parsing, no conversion, no copy on the Java side.
+ * close() unmaps the file at once, without waiting for the garbage collector.
+ *
+ * Layout, little endian (the byte order of the vertex data on all supported platforms):
+ * <pre>
+ *  0  int    magic "OGLM"
+ *  4  int    version
+ *  8  int    vertex count
+ * 12  int    index count (0 for unindexed objects), indices are unsigned ints
+ * 16  int    vertex layout: stride (0: positions and normals in two blobs, VertexLayout.SEPARATE)
+ * 20  int                   position type (GL enum)
+ * 24  int                   positions normalized (0 or 1)
+ * 28  int                   normal offset within a vertex
+ * 32  int                   normal type (GL enum)
+ * 36  int                   normal components
+ * 40  float  position scale (see OGLObject.getPositionScale)
+ * 44  float  bounding radius
+ * 48  float  bounding box minimum x, y, z
+ * 60  float  bounding box maximum x, y, z
+ * 72  int    vertex blob offset, bytes
+ * 76  int    normal blob offset, bytes (SEPARATE only, otherwise 0)
+ * 80  int    index blob offset, bytes (0 for unindexed objects)
+ * 84  int    CRC-32C of the header before this field and of all blobs
+ * </pre>
+ * Each blob starts at a multiple of ALIGNMENT bytes, the gaps are zero. All indices are less than
+ * the vertex count.
+ */
+public final class MeshFile implements Closeable {
+	public static final String SUFFIX = ".oglm";
+	private static final int MAGIC = 'O' | 'G' << 8 | 'L' << 16 | 'M' << 24;
+	private static final int VERSION = 2;
+	private static final int HEADER_BYTES = 88;
+	private static final int BOUNDS = 48;		// offset of the bounding box in the header
+	private static final int BLOBS = 72;		// offset of the blob offsets in the header
+	private static final int CHECKSUM = 84;		// offset of the checksum in the header
+	private static final int ALIGNMENT = 64;	// of the blobs in the file
+
+	// Unsafe.invokeCleaner(ByteBuffer) of jdk.unsupported unmaps a mapped buffer at once; null if not available
+	private static final Object UNSAFE;
+	private static final Method INVOKE_CLEANER;
+	static {
+		Object unsafe = null;
+		Method invokeCleaner = null;
+		try {
+			final Class<?> type = Class.forName("sun.misc.Unsafe");
+			final Field field = type.getDeclaredField("theUnsafe");
+			field.setAccessible(true);
+			unsafe = field.get(null);
+			invokeCleaner = type.getMethod("invokeCleaner", ByteBuffer.class);
+		} catch (ReflectiveOperationException | RuntimeException e) {
+			// unmapped by the garbage collector
+		}
+		UNSAFE = unsafe;
+		INVOKE_CLEANER = invokeCleaner;
+	}
+
+	private ByteBuffer m_file;					// the whole mapped file, null once closed
+	private final VertexLayout m_layout;
+
+	private MeshFile(ByteBuffer file, VertexLayout layout) {
+		m_file = file;
+		m_layout = layout;
+	}
+
+	/**
+	 * Maps a mesh file and checks its header, checksum and indices. The blobs are not copied.
+	 * @throws IOException if the file is not a valid mesh file
+	 */
+	public static MeshFile map(Path file) throws IOException {
+		checkByteOrder();
+
+		final ByteBuffer data;
+		try (FileChannel fc = FileChannel.open(file, StandardOpenOption.READ)) {
+			if (fc.size() < HEADER_BYTES || fc.size() > Integer.MAX_VALUE) throw new IOException(file + ": invalid size " + fc.size());
+			data = fc.map(FileChannel.MapMode.READ_ONLY, 0, fc.size()).order(ByteOrder.LITTLE_ENDIAN);
+		}
+
+		try {
+			if (data.getInt(0) != MAGIC) throw new IOException(file + ": not a mesh file");
+			if (data.getInt(4) != VERSION) throw new IOException(file + ": unsupported version " + data.getInt(4));
+
+			final VertexLayout layout = findLayout(data);
+			if (layout == null) throw new IOException(file + ": unknown vertex layout");
+
+			final MeshFile mesh = new MeshFile(data, layout);
+			if (mesh.getVertexCount() < 0 || mesh.getIndexCount() < 0 || data.getInt(BLOBS) < HEADER_BYTES || data.getInt(BLOBS + 4) < 0 || data.getInt(BLOBS + 8) < 0) {
+				throw new IOException(file + ": invalid header");
+			}
+			if (mesh.end() > data.capacity()) throw new IOException(file + ": truncated");
+			if (mesh.checksum() != data.getInt(CHECKSUM)) throw new IOException(file + ": checksum mismatch");
+
+			// an index beyond the vertices would make the GPU read outside the vertex buffer
+			if (mesh.getIndexCount() > 0) {
+				final IntBuffer indices = mesh.getIndices().asIntBuffer();
+				final int vertexCount = mesh.getVertexCount();
+				for (int i = 0; i < indices.limit(); i++) {
+					if (Integer.compareUnsigned(indices.get(i), vertexCount) >= 0) {
+						throw new IOException(file + ": index " + Integer.toUnsignedString(indices.get(i)) + " out of range of " + vertexCount + " vertices");
+					}
+				}
+			}
+			return mesh;
+		} catch (IOException | RuntimeException e) {
+			unmap(data);
+			throw e;
+		}
+	}
+
+	/**
+	 * Writes a mesh file; the file is replaced atomically, so readers never see a partial file.
+	 * @param vertices	vertex blob in layout (the positions for SEPARATE)
+	 * @param normals	normal blob for SEPARATE, otherwise null
+	 * @param indices	index blob, null for unindexed objects
+	 */
+	public static void write(Path file, VertexLayout layout, int vertexCount, int indexCount, float positionScale, float boundingRadius,
+		Vector3fc boundsMin, Vector3fc boundsMax, ByteBuffer vertices, ByteBuffer normals, ByteBuffer indices) throws IOException
+	{
+		checkByteOrder();
+
+		final int vertexOffset = align(HEADER_BYTES);
+		final int normalOffset = (normals != null) ? align(vertexOffset + vertices.remaining()) : 0;
+		final int indexOffset = (indices != null) ? align(Math.max(vertexOffset + vertices.remaining(), normalOffset + size(normals))) : 0;
+		final int end = Math.max(Math.max(vertexOffset + vertices.remaining(), normalOffset + size(normals)), indexOffset + size(indices));
+
+		final ByteBuffer data = ByteBuffer.allocateDirect(end).order(ByteOrder.LITTLE_ENDIAN);
+		data.putInt(0, MAGIC).putInt(4, VERSION)
+			.putInt(8, vertexCount).putInt(12, indexCount)
+			.putInt(16, layout.stride).putInt(20, layout.positionType).putInt(24, layout.positionNormalized ? 1 : 0)
+			.putInt(28, layout.normalOffset).putInt(32, layout.normalType).putInt(36, layout.normalSize)
+			.putFloat(40, positionScale).putFloat(44, boundingRadius)
+			.putFloat(BOUNDS + 0, boundsMin.x()).putFloat(BOUNDS + 4, boundsMin.y()).putFloat(BOUNDS + 8, boundsMin.z())
+			.putFloat(BOUNDS + 12, boundsMax.x()).putFloat(BOUNDS + 16, boundsMax.y()).putFloat(BOUNDS + 20, boundsMax.z())
+			.putInt(BLOBS, vertexOffset).putInt(BLOBS + 4, normalOffset).putInt(BLOBS + 8, indexOffset);
+		data.put(vertexOffset, vertices, vertices.position(), vertices.remaining());
+		if (normals != null) data.put(normalOffset, normals, normals.position(), normals.remaining());
+		if (indices != null) data.put(indexOffset, indices, indices.position(), indices.remaining());
+		data.putInt(CHECKSUM, new MeshFile(data, layout).checksum());
+
+		final Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+		try (FileChannel fc = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			while (data.hasRemaining()) {
+				fc.write(data);
+			}
+		}
+		Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	public VertexLayout getLayout() {
+		return m_layout;
+	}
+
+	public int getVertexCount() {
+		return m_file.getInt(8);
+	}
+
+	public int getIndexCount() {
+		return m_file.getInt(12);
+	}
+
+	public float getPositionScale() {
+		return m_file.getFloat(40);
+	}
+
+	public float getBoundingRadius() {
+		return m_file.getFloat(44);
+	}
+
+	/**
+	 * @return minimum corner of the axis-aligned bounding box, stored in dest
+	 */
+	public Vector3f getBoundsMin(Vector3f dest) {
+		return dest.set(m_file.getFloat(BOUNDS + 0), m_file.getFloat(BOUNDS + 4), m_file.getFloat(BOUNDS + 8));
+	}
+
+	/**
+	 * @return maximum corner of the axis-aligned bounding box, stored in dest
+	 */
+	public Vector3f getBoundsMax(Vector3f dest) {
+		return dest.set(m_file.getFloat(BOUNDS + 12), m_file.getFloat(BOUNDS + 16), m_file.getFloat(BOUNDS + 20));
+	}
+
+	/**
+	 * @return the vertex blob (the positions for VertexLayout.SEPARATE), a view of the mapped file
+	 */
+	public ByteBuffer getVertices() {
+		return m_file.slice(m_file.getInt(BLOBS), vertexBytes()).order(ByteOrder.LITTLE_ENDIAN);
+	}
+
+	/**
+	 * @return the normal blob of VertexLayout.SEPARATE, otherwise null
+	 */
+	public ByteBuffer getNormals() {
+		return (m_layout == VertexLayout.SEPARATE) ? m_file.slice(m_file.getInt(BLOBS + 4), vertexBytes()).order(ByteOrder.LITTLE_ENDIAN) : null;
+	}
+
+	/**
+	 * @return the index blob, null for unindexed objects
+	 */
+	public ByteBuffer getIndices() {
+		return (getIndexCount() > 0) ? m_file.slice(m_file.getInt(BLOBS + 8), getIndexCount()*Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN) : null;
+	}
+
+	// bytes of the vertex blob, and of the normal blob for SEPARATE
+	private int vertexBytes() {
+		return getVertexCount()*((m_layout == VertexLayout.SEPARATE) ? 3*Float.BYTES : m_layout.stride);
+	}
+
+	private long end() {
+		final long vertexBytes = (long)getVertexCount()*((m_layout == VertexLayout.SEPARATE) ? 3*Float.BYTES : m_layout.stride);
+		long end = (long)m_file.getInt(BLOBS) + vertexBytes;
+		if (m_layout == VertexLayout.SEPARATE) end = Math.max(end, (long)m_file.getInt(BLOBS + 4) + vertexBytes);
+		if (getIndexCount() > 0) end = Math.max(end, (long)m_file.getInt(BLOBS + 8) + (long)getIndexCount()*Integer.BYTES);
+		return end;
+	}
+
+	/**
+	 * Unmaps the file; the blobs returned before must not be used afterwards.
+	 */
+	@Override
+	public void close() {
+		if (m_file == null) return;
+		final ByteBuffer file = m_file;
+		m_file = null;
+		unmap(file);
+	}
+
+	private int checksum() {
+		final CRC32C crc = new CRC32C();	// hardware accelerated on current CPUs
+		crc.update(m_file.slice(0, CHECKSUM));
+		crc.update(getVertices());
+		if (m_layout == VertexLayout.SEPARATE) crc.update(getNormals());
+		if (getIndexCount() > 0) crc.update(getIndices());
+		return (int)crc.getValue();
+	}
+
+	private static VertexLayout findLayout(ByteBuffer header) {
+		for (VertexLayout layout : VertexLayout.values()) {
+			if (layout.stride == header.getInt(16) && layout.positionType == header.getInt(20)
+				&& (layout.positionNormalized ? 1 : 0) == header.getInt(24) && layout.normalOffset == header.getInt(28)
+				&& layout.normalType == header.getInt(32) && layout.normalSize == header.getInt(36)) return layout;
+		}
+		return null;
+	}
+
+	private static void unmap(ByteBuffer mapped) {
+		if (INVOKE_CLEANER == null) return;
+		try {
+			INVOKE_CLEANER.invoke(UNSAFE, mapped);
+		} catch (ReflectiveOperationException e) {
+			// left to the garbage collector
+		}
+	}
+
+	private static int align(int offset) {
+		return (offset + ALIGNMENT - 1)/ALIGNMENT*ALIGNMENT;
+	}
+
+	private static int size(ByteBuffer blob) {
+		return (blob != null) ? blob.remaining() : 0;
+	}
+
+	// the blobs are handed to OpenGL as they are, in native byte order
+	private static void checkByteOrder() {
+		if (ByteOrder.nativeOrder() != ByteOrder.LITTLE_ENDIAN) {
+			throw new UnsupportedOperationException("Mesh files are little endian only");
+		}
+	}
+}
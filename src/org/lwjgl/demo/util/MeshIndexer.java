@@ -0,0 +1,186 @@
+package org.lwjgl.demo.util;
+
+// https://tomforsyth1000.github.io/papers/fast_vert_cache_opt.html
+
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+
+/**
+ * Turns unindexed triangle lists into indexed ones: duplicates are welded (VertexWelder), the triangles
+ * are reordered for the post-transform vertex cache (Forsyth's linear-speed algorithm) and the
+ * vertices are renumbered in the order of their first use for vertex fetch locality.
+ *
+ * Positions and normals hold 3 floats per vertex (see MeshBuilder); they are compacted in place.
+ */
+public final class MeshIndexer {
+	private static final int CACHE_SIZE = 32;			// simulated LRU cache, larger than most real caches
+	private static final float CACHE_DECAY_POWER = 1.5f;
+	private static final float LAST_TRIANGLE_SCORE = 0.75f;
+	private static final float VALENCE_BOOST_SCALE = 2.0f;
+	private static final float VALENCE_BOOST_POWER = 0.5f;
+
+	private MeshIndexer() {
+	}
+
+	/**
+	 * Indexes a triangle list of vertexCount vertices; afterwards indices holds vertexCount indices.
+	 * @return number of remaining (unique) vertices
+	 */
+	public static int index(VertexWelder welder, FloatBuffer positions, FloatBuffer normals, int vertexCount, IntBuffer indices) {
+		final int uniqueCount = welder.weld(positions, normals, vertexCount, indices);
+		optimizeVertexCache(indices, vertexCount, uniqueCount);
+		return optimizeVertexFetch(positions, normals, indices, vertexCount, uniqueCount);
+	}
+
+	/**
+	 * Reorders the triangles of an indexed triangle list, so that vertices are reused while they are
+	 * still in the post-transform cache.
+	 */
+	public static void optimizeVertexCache(IntBuffer indices, int indexCount, int vertexCount) {
+		final int triangleCount = indexCount/3;
+
+		// triangles of each vertex: adjacency[offsets[v] .. offsets[v] + remaining[v]) are not emitted yet
+		final int[] remaining = new int[vertexCount];
+		final int[] offsets = new int[vertexCount + 1];
+		for (int i = 0; i < triangleCount*3; i++) {
+			offsets[indices.get(i) + 1]++;
+		}
+		for (int v = 0; v < vertexCount; v++) {
+			offsets[v + 1] += offsets[v];
+		}
+		final int[] adjacency = new int[triangleCount*3];
+		for (int i = 0; i < triangleCount*3; i++) {
+			final int v = indices.get(i);
+			adjacency[offsets[v] + remaining[v]++] = i/3;
+		}
+
+		final int[] cachePosition = new int[vertexCount];
+		final float[] vertexScore = new float[vertexCount];
+		Arrays.fill(cachePosition, -1);
+		for (int v = 0; v < vertexCount; v++) {
+			vertexScore[v] = vertexScore(-1, remaining[v]);
+		}
+
+		final float[] triangleScore = new float[triangleCount];
+		final boolean[] emitted = new boolean[triangleCount];
+		for (int t = 0; t < triangleCount; t++) {
+			triangleScore[t] = vertexScore[indices.get(t*3)] + vertexScore[indices.get(t*3 + 1)] + vertexScore[indices.get(t*3 + 2)];
+		}
+
+		int[] cache = new int[CACHE_SIZE + 3];
+		int[] newCache = new int[CACHE_SIZE + 3];
+		int cacheCount = 0;
+		final int[] output = new int[triangleCount*3];
+
+		int best = -1;
+		int next = 0;	// all triangles before next are emitted
+		for (int n = 0; n < triangleCount; n++) {
+			if (best < 0) {
+				// no candidate among the cached vertices: continue with the next remaining triangle in input order
+				// (a search for the best remaining one would make the whole algorithm quadratic)
+				while (emitted[next]) next++;
+				best = next;
+			}
+
+			emitted[best] = true;
+			int newCount = 0;
+			for (int k = 0; k < 3; k++) {
+				final int v = indices.get(best*3 + k);
+				output[n*3 + k] = v;
+
+				// remove the triangle from the adjacency of v
+				final int end = offsets[v] + --remaining[v];
+				for (int a = offsets[v]; a <= end; a++) {
+					if (adjacency[a] == best) {
+						adjacency[a] = adjacency[end];
+						break;
+					}
+				}
+				if (!contains(newCache, newCount, v)) newCache[newCount++] = v;
+			}
+
+			// the vertices of the triangle move to the front of the LRU cache
+			final int triangleVertices = newCount;
+			for (int i = 0; i < cacheCount; i++) {
+				if (!contains(newCache, triangleVertices, cache[i])) newCache[newCount++] = cache[i];
+			}
+			for (int i = 0; i < newCount; i++) {
+				final int v = newCache[i];
+				cachePosition[v] = (i < CACHE_SIZE) ? i : -1;
+				vertexScore[v] = vertexScore(cachePosition[v], remaining[v]);
+			}
+			final int[] swap = cache;
+			cache = newCache;
+			newCache = swap;
+			cacheCount = Math.min(newCount, CACHE_SIZE);
+
+			// rescore the triangles of all vertices whose score changed, the best one is next
+			best = -1;
+			float bestScore = -1;
+			for (int i = 0; i < newCount; i++) {
+				final int v = cache[i];
+				for (int a = offsets[v]; a < offsets[v] + remaining[v]; a++) {
+					final int t = adjacency[a];
+					triangleScore[t] = vertexScore[indices.get(t*3)] + vertexScore[indices.get(t*3 + 1)] + vertexScore[indices.get(t*3 + 2)];
+					if (triangleScore[t] > bestScore) {
+						bestScore = triangleScore[t];
+						best = t;
+					}
+				}
+			}
+		}
+
+		indices.put(0, output);
+	}
+
+	/**
+	 * Renumbers the vertices in the order of their first use; unused vertices are dropped.
+	 * @return number of used vertices
+	 */
+	public static int optimizeVertexFetch(FloatBuffer positions, FloatBuffer normals, IntBuffer indices, int indexCount, int vertexCount) {
+		final int[] remap = new int[vertexCount];
+		final float[] p = new float[vertexCount*3];
+		final float[] n = new float[vertexCount*3];
+		Arrays.fill(remap, -1);
+
+		int next = 0;
+		for (int i = 0; i < indexCount; i++) {
+			final int v = indices.get(i);
+			if (remap[v] < 0) {
+				remap[v] = next;
+				positions.get(v*3, p, next*3, 3);
+				normals.get(v*3, n, next*3, 3);
+				next++;
+			}
+			indices.put(i, remap[v]);
+		}
+
+		positions.put(0, p, 0, next*3);
+		normals.put(0, n, 0, next*3);
+		return next;
+	}
+
+	private static float vertexScore(int cachePosition, int remainingTriangles) {
+		if (remainingTriangles == 0) return -1;	// no triangle left to use this vertex
+
+		float score = 0;
+		if (cachePosition >= 0) {
+			if (cachePosition < 3) {
+				// used by the last triangle: fixed score, so that strips are not preferred over fans
+				score = LAST_TRIANGLE_SCORE;
+			} else {
+				score = (float)Math.pow(1 - (cachePosition - 3)/(float)(CACHE_SIZE - 3), CACHE_DECAY_POWER);
+			}
+		}
+		// vertices with only a few triangles left are finished first
+		return score + VALENCE_BOOST_SCALE*(float)Math.pow(remainingTriangles, -VALENCE_BOOST_POWER);
+	}
+
+	private static boolean contains(int[] array, int count, int value) {
+		for (int i = 0; i < count; i++) {
+			if (array[i] == value) return true;
+		}
+		return false;
+	}
+}
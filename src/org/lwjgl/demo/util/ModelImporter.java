@@ -0,0 +1,250 @@
+package org.lwjgl.demo.util;
+
+// https://javadoc.lwjgl.org/org/lwjgl/assimp/package-summary.html
+// https://assimp-docs.readthedocs.io/en/latest/usage/use_the_lib.html
+
+import static org.lwjgl.assimp.Assimp.AI_MATKEY_COLOR_DIFFUSE;
+import static org.lwjgl.assimp.Assimp.aiGetErrorString;
+import static org.lwjgl.assimp.Assimp.aiGetMaterialColor;
+import static org.lwjgl.assimp.Assimp.aiImportFile;
+import static org.lwjgl.assimp.Assimp.aiPrimitiveType_TRIANGLE;
+import static org.lwjgl.assimp.Assimp.aiProcess_GenSmoothNormals;
+import static org.lwjgl.assimp.Assimp.aiProcess_ImproveCacheLocality;
+import static org.lwjgl.assimp.Assimp.aiProcess_JoinIdenticalVertices;
+import static org.lwjgl.assimp.Assimp.aiProcess_PreTransformVertices;
+import static org.lwjgl.assimp.Assimp.aiProcess_SortByPType;
+import static org.lwjgl.assimp.Assimp.aiProcess_Triangulate;
+import static org.lwjgl.assimp.Assimp.aiReleaseImport;
+import static org.lwjgl.assimp.Assimp.aiReturn_SUCCESS;
+import static org.lwjgl.assimp.Assimp.aiTextureType_NONE;
+import static org.lwjgl.system.MemoryStack.stackPush;
+import static org.lwjgl.system.MemoryUtil.memAddress;
+import static org.lwjgl.system.MemoryUtil.memCopy;
+import static org.lwjgl.system.MemoryUtil.memGetAddress;
+import static org.lwjgl.system.MemoryUtil.memGetInt;
+
+import java.nio.file.Path;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import org.lwjgl.assimp.AIColor4D;
+import org.lwjgl.assimp.AIFace;
+import org.lwjgl.assimp.AIMaterial;
+import org.lwjgl.assimp.AIMesh;
+import org.lwjgl.assimp.AIScene;
+import org.lwjgl.opengl.GL;
+import org.lwjgl.system.MemoryStack;
+
+/**
+ * Imports the triangle meshes of a model file (any format Assimp reads) as OGLMesh objects, streamed:
+ *
+ * The file is read by Assimp on a worker thread; afterwards the meshes are converted in parallel on
+ * all cores (positions, normals and indices into the vertex layout). Finished meshes wait in a
+ * bounded queue, from which the GL thread uploads them with poll(), e.g. a few per frame. So the
+ * first meshes are drawn while the others are still converted.
+ *
+ * Memory stays bounded: a worker blocks while the queue is full, so at most QUEUE_SIZE + threads
+ * converted meshes exist besides the Assimp scene, and the scene is released as soon as the last
+ * mesh is converted, before the remaining ones are uploaded.
+ */
+public class ModelImporter implements AutoCloseable {
+	/** triangles only, shared vertices, no node hierarchy, ordered for the post-transform vertex cache */
+	public static final int FLAGS = aiProcess_Triangulate | aiProcess_JoinIdenticalVertices | aiProcess_ImproveCacheLocality
+		| aiProcess_GenSmoothNormals | aiProcess_PreTransformVertices | aiProcess_SortByPType;
+	private static final int QUEUE_SIZE = 4;			// converted meshes waiting for the GL thread
+	private static final long OFFER_TIMEOUT = 100;		// [ms] until a blocked worker checks for close()
+
+	private final Path m_file;
+	private final VertexLayout m_layout;
+	private final Color4D m_defaultColor;
+	private final ExecutorService m_executor;
+	private final BlockingQueue<OGLMesh> m_queue = new ArrayBlockingQueue<>(QUEUE_SIZE);
+	private final AtomicInteger m_converting = new AtomicInteger(-1);	// meshes not converted yet, -1 while importing
+	private volatile AIScene m_scene;
+	private volatile Throwable m_error;
+	private volatile boolean m_closed;
+	private volatile boolean m_converted;	// all meshes converted (and queued)
+
+	/**
+	 * Starts the import; call it on the GL thread, which selects the vertex layout.
+	 * @param defaultColor color of meshes whose material has no diffuse color
+	 */
+	public ModelImporter(Path file, Color4D defaultColor) {
+		m_file = file;
+		m_layout = VertexLayout.DEFAULT.isSupported(GL.getCapabilities()) ? VertexLayout.DEFAULT : VertexLayout.INTERLEAVED;
+		m_defaultColor = defaultColor;
+
+		final int threads = Math.max(1, Runtime.getRuntime().availableProcessors());
+		m_executor = Executors.newFixedThreadPool(threads, runnable -> {
+			Thread thread = new Thread(runnable, "model import");
+			thread.setDaemon(true);
+			return thread;
+		});
+		m_executor.execute(this::importScene);
+	}
+
+	/**
+	 * Uploads up to max converted meshes without waiting for the others. Call it on the GL thread.
+	 * @return number of uploaded meshes
+	 * @throws IllegalStateException if the import has failed
+	 */
+	public int poll(int max, Consumer<OGLMesh> consumer) {
+		if (m_error != null) throw new IllegalStateException("Failed to import " + m_file, m_error);
+
+		int count = 0;
+		OGLMesh mesh;
+		while (count < max && (mesh = m_queue.poll()) != null) {
+			mesh.uploadBuffers();
+			consumer.accept(mesh);
+			count++;
+		}
+		return count;
+	}
+
+	/**
+	 * @return true when all meshes are uploaded
+	 */
+	public boolean isDone() {
+		return m_converted && m_queue.isEmpty();
+	}
+
+	/**
+	 * Stops the import; meshes not uploaded yet are dropped.
+	 */
+	@Override
+	public void close() {
+		m_closed = true;
+		m_executor.shutdown();
+		try {
+			while (!m_executor.awaitTermination(OFFER_TIMEOUT, TimeUnit.MILLISECONDS)) {
+				drop();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		drop();
+		releaseScene();		// in case the import ended before all meshes were converted
+	}
+
+	private void importScene() {
+		final AIScene scene = aiImportFile(m_file.toString(), FLAGS);
+		if (scene == null) {
+			m_error = new IllegalStateException(aiGetErrorString());
+			return;
+		}
+		m_scene = scene;
+		if (m_closed) {
+			// closed while Assimp was reading, the executor accepts no conversions
+			releaseScene();
+			return;
+		}
+
+		final int meshCount = scene.mNumMeshes();
+		m_converting.set(meshCount);
+		if (meshCount == 0) {
+			releaseScene();
+			m_converted = true;
+			return;
+		}
+		for (int i = 0; i < meshCount; i++) {
+			final int index = i;
+			try {
+				m_executor.execute(() -> convertMesh(index));
+			} catch (RejectedExecutionException e) {
+				// closed meanwhile: the rejected meshes are never converted, the accepted ones may still
+				// read the scene, so it is released by the last of them (or here, if none is left)
+				if (m_converting.addAndGet(i - meshCount) == 0) releaseScene();
+				return;
+			}
+		}
+	}
+
+	private void convertMesh(int index) {
+		try {
+			if (m_closed || m_error != null) return;
+
+			final AIMesh mesh = AIMesh.create(m_scene.mMeshes().get(index));
+			OGLMesh result = null;
+			if ((mesh.mPrimitiveTypes() & aiPrimitiveType_TRIANGLE) != 0) {
+				result = new OGLMesh(materialColor(mesh.mMaterialIndex()));
+				result.setVertexLayout(m_layout);
+				// not pooled: the pools of the worker threads would outlive the import
+				final MeshBuilder builder = new MeshBuilder(mesh.mNumVertices());
+				try {
+					toMeshBuilder(mesh, builder);
+					result.prepareBuffers(builder);
+				} finally {
+					builder.free();
+				}
+			}
+			if (result != null) offer(result);
+		} catch (Throwable t) {
+			m_error = t;
+		} finally {
+			if (m_converting.decrementAndGet() == 0) {
+				// Assimp's copy is no longer needed, even if not all meshes are uploaded yet
+				releaseScene();
+				m_converted = true;
+			}
+		}
+	}
+
+	// waits while the queue is full; a mesh that was never uploaded is disposed without GL calls
+	private void offer(OGLMesh mesh) throws InterruptedException {
+		while (!m_queue.offer(mesh, OFFER_TIMEOUT, TimeUnit.MILLISECONDS)) {
+			if (m_closed) {
+				mesh.dispose();
+				return;
+			}
+		}
+	}
+
+	private static void toMeshBuilder(AIMesh mesh, MeshBuilder builder) {
+		final int vertexCount = mesh.mNumVertices();
+		final int faceCount = mesh.mNumFaces();
+
+		// AIVector3D is 3 floats, like the storage of MeshBuilder
+		builder.resize(vertexCount);
+		memCopy(mesh.mVertices().address(), memAddress(builder.getPositions()), (long)vertexCount*3*Float.BYTES);
+		memCopy(mesh.mNormals().address(), memAddress(builder.getNormals()), (long)vertexCount*3*Float.BYTES);
+
+		// after aiProcess_SortByPType a triangle mesh has only triangles, other faces are skipped anyway
+		builder.ensureIndexCapacity(faceCount*3);
+		final long faces = mesh.mFaces().address();
+		for (int f = 0; f < faceCount; f++) {
+			final long face = faces + (long)f*AIFace.SIZEOF;
+			if (AIFace.nmNumIndices(face) != 3) continue;
+			final long indices = memGetAddress(face + AIFace.MINDICES);
+			builder.triangle(memGetInt(indices), memGetInt(indices + 4), memGetInt(indices + 8));
+		}
+	}
+
+	private Color4D materialColor(int material) {
+		try (MemoryStack stack = stackPush()) {
+			AIColor4D color = AIColor4D.malloc(stack);
+			AIMaterial m = AIMaterial.create(m_scene.mMaterials().get(material));
+			if (aiGetMaterialColor(m, AI_MATKEY_COLOR_DIFFUSE, aiTextureType_NONE, 0, color) != aiReturn_SUCCESS) return m_defaultColor;
+			return new Color4D(color.r(), color.g(), color.b(), color.a());
+		}
+	}
+
+	private synchronized void releaseScene() {
+		if (m_scene != null) {
+			aiReleaseImport(m_scene);
+			m_scene = null;
+		}
+	}
+
+	private void drop() {
+		OGLMesh mesh;
+		while ((mesh = m_queue.poll()) != null) {
+			mesh.dispose();
+		}
+	}
+}
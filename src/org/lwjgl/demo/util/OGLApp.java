@@ -3,8 +3,13 @@ package org.lwjgl.demo.util;
 // https://javadoc.lwjgl.org/index.html?org/lwjgl/opengl/GL30.html
 
 import static org.lwjgl.glfw.Callbacks.glfwFreeCallbacks;
+import static org.lwjgl.glfw.GLFW.GLFW_CONTEXT_VERSION_MAJOR;
+import static org.lwjgl.glfw.GLFW.GLFW_CONTEXT_VERSION_MINOR;
 import static org.lwjgl.glfw.GLFW.GLFW_FALSE;
 import static org.lwjgl.glfw.GLFW.GLFW_KEY_ESCAPE;
+import static org.lwjgl.glfw.GLFW.GLFW_OPENGL_CORE_PROFILE;
+import static org.lwjgl.glfw.GLFW.GLFW_OPENGL_FORWARD_COMPAT;
+import static org.lwjgl.glfw.GLFW.GLFW_OPENGL_PROFILE;
 import static org.lwjgl.glfw.GLFW.GLFW_RELEASE;
 import static org.lwjgl.glfw.GLFW.GLFW_RESIZABLE;
 import static org.lwjgl.glfw.GLFW.GLFW_TRUE;
@@ -28,10 +33,11 @@ import static org.lwjgl.glfw.GLFW.glfwSwapInterval;
 import static org.lwjgl.glfw.GLFW.glfwTerminate;
 import static org.lwjgl.glfw.GLFW.glfwWindowHint;
 import static org.lwjgl.glfw.GLFW.glfwWindowShouldClose;
-import static org.lwjgl.opengl.GL11.GL_COLOR_BUFFER_BIT;
-import static org.lwjgl.opengl.GL11.GL_DEPTH_BUFFER_BIT;
-import static org.lwjgl.opengl.GL11.glClear;
-import static org.lwjgl.opengl.GL11.glClearColor;
+import static org.lwjgl.opengl.GL11C.GL_COLOR_BUFFER_BIT;
+import static org.lwjgl.opengl.GL11C.GL_DEPTH_BUFFER_BIT;
+import static org.lwjgl.opengl.GL11C.glClear;
+import static org.lwjgl.opengl.GL11C.glClearColor;
+import static org.lwjgl.opengl.GL11C.glFinish;
 import static org.lwjgl.opengl.GL11C.GL_RENDERER;
 import static org.lwjgl.opengl.GL11C.GL_VENDOR;
 import static org.lwjgl.opengl.GL11C.GL_VERSION;
@@ -40,7 +46,10 @@ import static org.lwjgl.opengl.GL20C.GL_SHADING_LANGUAGE_VERSION;
 import static org.lwjgl.system.MemoryStack.stackPush;
 import static org.lwjgl.system.MemoryUtil.NULL;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.IntBuffer;
+import java.nio.file.Paths;
 
 import org.lwjgl.Version;
 import org.lwjgl.glfw.GLFWErrorCallback;
@@ -51,6 +60,12 @@ import org.lwjgl.system.MemoryStack;
 public class OGLApp<M extends OGLModel> {
 	private long m_window;	// The window handle
 	private M m_model;		// the model
+	private GPUProfiler m_profiler;	// GPU time per frame and per named scope
+	private final AllocationMeter m_allocations = AllocationMeter.fromSystemProperties(); // heap bytes per render()
+	private final FrameStats m_frameStats = new FrameStats();		// frame times of the whole run
+	private final FrameStats m_intervalStats = new FrameStats();	// frame times since the last status line
+	private long m_frameTime;	// start of the current frame [ns]
+	private long m_statusTime;	// time of the last status line [ns]
 	
 	protected org.lwjgl.glfw.GLFWKeyCallbackI m_keyCallback = (window, key, scancode, action, mods) -> {
 		if ( key == GLFW_KEY_ESCAPE && action == GLFW_RELEASE )
@@ -64,8 +79,18 @@ public class OGLApp<M extends OGLModel> {
 	public void run(String title, int width, int height, Color4D bkgColor) {
 		System.out.println(title + " " + Version.getVersion() + "!");
 
+		// -Dogl.headless.frames=N renders N frames offscreen without a window
+		int frames = Integer.getInteger("ogl.headless.frames", 0);
+		if (frames > 0) {
+			runHeadless(width, height, bkgColor, frames);
+			return;
+		}
+
 		init(title, width, height);
 		loop(bkgColor);
+		m_model.dispose();
+		m_profiler.free();
+		reportFrameStats();
 
 		// Free the window callbacks and destroy the window
 		glfwFreeCallbacks(m_window);
@@ -88,11 +113,11 @@ public class OGLApp<M extends OGLModel> {
 		// Configure GLFW
 		glfwDefaultWindowHints(); // optional, the current window hints are already the default
 
-		// TODO necessary for Mac
-		//glfwWindowHint(GLFW_CONTEXT_VERSION_MAJOR, 4);
-		//glfwWindowHint(GLFW_CONTEXT_VERSION_MINOR, 1);
-		//glfwWindowHint(GLFW_OPENGL_PROFILE, GLFW_OPENGL_CORE_PROFILE);
-		// end Mac
+		// core profile: all models render with buffers and shaders (forward compatible is necessary for Mac)
+		glfwWindowHint(GLFW_CONTEXT_VERSION_MAJOR, 3);
+		glfwWindowHint(GLFW_CONTEXT_VERSION_MINOR, 3);
+		glfwWindowHint(GLFW_OPENGL_PROFILE, GLFW_OPENGL_CORE_PROFILE);
+		glfwWindowHint(GLFW_OPENGL_FORWARD_COMPAT, GLFW_TRUE);
 		
 		glfwWindowHint(GLFW_VISIBLE, GLFW_FALSE); // the window will stay hidden after creation
 		glfwWindowHint(GLFW_RESIZABLE, GLFW_TRUE); // the window will be resizable
@@ -132,18 +157,65 @@ public class OGLApp<M extends OGLModel> {
 
 		// make capabilities available
 		GL.createCapabilities();
-        System.err.println("GL_VENDOR  : " + glGetString(GL_VENDOR));
-        System.err.println("GL_RENDERER: " + glGetString(GL_RENDERER));
-        System.err.println("GL_VERSION : " + glGetString(GL_VERSION));
-        System.err.println("GL_SHADER  : " + glGetString(GL_SHADING_LANGUAGE_VERSION));
+		printContextInfo();
+
+		m_profiler = GPUProfiler.fromSystemProperties(GL.getCapabilities());
+		m_model.setProfiler(m_profiler);
 
-        // initialize model
+        // initialize model; its meshes are uploaded, so the pooled builders need not keep their storage
         m_model.init(width, height);
+        MeshBuilder.freePool();
         
 		// Make the window visible
 		glfwShowWindow(m_window);
 	}
 
+	/**
+	 * Renders a fixed number of frames into an offscreen framebuffer of the given size.
+	 * No window or display server is needed, e.g. on CI machines with Mesa llvmpipe.
+	 * If the system property ogl.headless.output is set, the last frame is saved as PNG.
+	 */
+	public void runHeadless(int width, int height, Color4D bkgColor, int frames) {
+		try (HeadlessContext context = new HeadlessContext(width, height)) {
+			printContextInfo();
+
+			m_profiler = GPUProfiler.fromSystemProperties(GL.getCapabilities());
+			m_model.setProfiler(m_profiler);
+
+			context.bind();
+			m_model.init(width, height);
+			MeshBuilder.freePool();
+
+			glClearColor(bkgColor.r, bkgColor.g, bkgColor.b, bkgColor.a);
+
+			long startTime = System.nanoTime();
+			m_frameTime = m_statusTime = startTime;
+			for (int i = 0; i < frames; i++) {
+				context.bind();
+				renderFrame();
+			}
+			glFinish(); // wait until the GPU has finished all frames
+			double seconds = (System.nanoTime() - startTime)/1e9;
+
+			System.out.format("%d frames in %.3f s (%.1f fps)\n", frames, seconds, frames/seconds);
+
+			String output = System.getProperty("ogl.headless.output");
+			if (output != null) {
+				context.writePNG(output);
+			}
+			m_model.dispose();
+			m_profiler.free();
+		}
+		reportFrameStats();
+	}
+
+	private static void printContextInfo() {
+        System.err.println("GL_VENDOR  : " + glGetString(GL_VENDOR));
+        System.err.println("GL_RENDERER: " + glGetString(GL_RENDERER));
+        System.err.println("GL_VERSION : " + glGetString(GL_VERSION));
+        System.err.println("GL_SHADER  : " + glGetString(GL_SHADING_LANGUAGE_VERSION));
+	}
+
 	private void loop(Color4D bkgColor) {
 		// This line is critical for LWJGL's interoperation with GLFW's
 		// OpenGL context, or any context that is managed externally.
@@ -157,10 +229,15 @@ public class OGLApp<M extends OGLModel> {
 
 		// Run the rendering loop until the user has attempted to close
 		// the window or has pressed the ESCAPE key.
+		m_frameTime = m_statusTime = System.nanoTime();
 		while ( !glfwWindowShouldClose(m_window) ) {
-			glClear(GL_COLOR_BUFFER_BIT | GL_DEPTH_BUFFER_BIT); // clear the frame buffer
-
-			m_model.render(); // render model
+			if (m_model.isReady()) {
+				renderFrame();
+			} else {
+				// keep the window responsive while the model's shaders compile in the background
+				glClear(GL_COLOR_BUFFER_BIT | GL_DEPTH_BUFFER_BIT);
+				m_frameTime = System.nanoTime();
+			}
 
 			glfwSwapBuffers(m_window); // swap the color buffers
 
@@ -169,5 +246,56 @@ public class OGLApp<M extends OGLModel> {
 			glfwPollEvents();
 		}
 	}
-}
 
+	private void renderFrame() {
+		glClear(GL_COLOR_BUFFER_BIT | GL_DEPTH_BUFFER_BIT); // clear the frame buffer
+
+		m_profiler.beginFrame();
+		m_allocations.begin();
+		m_model.render(); // render model
+		m_model.endFrame();
+		m_allocations.end();
+		m_profiler.endFrame();
+
+		// frame time: between the same point of two successive frames, including swap and event polling
+		long now = System.nanoTime();
+		m_frameStats.record(now - m_frameTime);
+		m_intervalStats.record(now - m_frameTime);
+		m_frameTime = now;
+
+		// once per second
+		if (now - m_statusTime >= 1_000_000_000L) {
+			if (m_allocations.isSupported()) {
+				System.out.format("%s, %.0f bytes/frame allocated\n", m_intervalStats.summary(), m_allocations.getBytesPerFrame()); // falls die fps zu hoch sind: https://www.khronos.org/opengl/wiki/Swap_Interval#In_Windows
+			} else {
+				System.out.println(m_intervalStats.summary());
+			}
+			if (m_profiler.isEnabled()) {
+				System.out.println(m_profiler.summary());
+			}
+			final String status = m_model.summary();
+			if (!status.isEmpty()) {
+				System.out.println(status);
+			}
+			m_intervalStats.reset();
+			m_statusTime = now;
+		}
+	}
+
+	/**
+	 * Prints the frame statistics of the whole run and exports them to the file given
+	 * by the system property ogl.stats.output (*.csv or *.json).
+	 */
+	private void reportFrameStats() {
+		System.out.println("Run: " + m_frameStats.getCount() + " frames, " + m_frameStats.summary());
+
+		String output = System.getProperty("ogl.stats.output");
+		if (output != null) {
+			try {
+				m_frameStats.export(Paths.get(output));
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+	}
+}
@@ -0,0 +1,159 @@
+package org.lwjgl.demo.util;
+
+import static org.lwjgl.opengl.GL11C.GL_FLOAT;
+import static org.lwjgl.opengl.GL15C.GL_ARRAY_BUFFER;
+import static org.lwjgl.opengl.GL15C.GL_STREAM_DRAW;
+import static org.lwjgl.opengl.GL15C.glBindBuffer;
+import static org.lwjgl.opengl.GL15C.glBufferData;
+import static org.lwjgl.opengl.GL15C.glDeleteBuffers;
+import static org.lwjgl.opengl.GL15C.glGenBuffers;
+import static org.lwjgl.opengl.GL20C.glDisableVertexAttribArray;
+import static org.lwjgl.opengl.GL20C.glEnableVertexAttribArray;
+import static org.lwjgl.opengl.GL20C.glVertexAttribPointer;
+import static org.lwjgl.opengl.GL33C.glVertexAttribDivisor;
+import static org.lwjgl.system.MemoryUtil.memAllocFloat;
+import static org.lwjgl.system.MemoryUtil.memFree;
+import static org.lwjgl.system.MemoryUtil.memRealloc;
+
+import java.nio.FloatBuffer;
+
+import org.joml.Matrix3d;
+import org.joml.Matrix4x3d;
+
+/**
+ * Per-instance attributes for instanced drawing: model matrix (mat4x3), normal matrix (mat3) and color (vec4).
+ * The attribute locations match resources/shader1_instanced.vert.
+ */
+public class OGLInstanceBuffer {
+	public static final int MODEL_ATTRIB = 2;	// mat4x3: locations 2..5
+	public static final int NORMAL_ATTRIB = 6;	// mat3: locations 6..8
+	public static final int COLOR_ATTRIB = 9;	// vec4
+
+	static final int FLOATS_PER_INSTANCE = 4*3 + 3*3 + 4;
+	private static final int STRIDE = FLOATS_PER_INSTANCE*Float.BYTES;
+	private static final int NORMAL_OFFSET = 4*3;
+	private static final int COLOR_OFFSET = NORMAL_OFFSET + 3*3;
+
+	private final Matrix3d m_normal = new Matrix3d();
+	private FloatBuffer m_data;
+	private int m_VBO;
+	private int m_count;
+
+	public OGLInstanceBuffer(int capacity) {
+		m_data = memAllocFloat(capacity*FLOATS_PER_INSTANCE);
+	}
+
+	public int getCount() {
+		return m_count;
+	}
+
+	/**
+	 * @return buffer name of the uploaded instances, 0 before the first upload
+	 */
+	public int getBuffer() {
+		return m_VBO;
+	}
+
+	/**
+	 * Removes all instances, the capacity is kept.
+	 */
+	public void clear() {
+		m_count = 0;
+	}
+
+	public OGLInstanceBuffer add(Matrix4x3d model, Color4D color) {
+		return add(model, color.r, color.g, color.b, color.a);
+	}
+
+	public OGLInstanceBuffer add(Matrix4x3d model, float r, float g, float b, float a) {
+		if ((m_count + 1)*FLOATS_PER_INSTANCE > m_data.capacity()) {
+			m_data = memRealloc(m_data, m_data.capacity()*2);
+		}
+
+		final int offset = m_count*FLOATS_PER_INSTANCE;
+		model.get(offset, m_data);
+		model.normal(m_normal).get(offset + NORMAL_OFFSET, m_data);
+		m_data.put(offset + COLOR_OFFSET + 0, r);
+		m_data.put(offset + COLOR_OFFSET + 1, g);
+		m_data.put(offset + COLOR_OFFSET + 2, b);
+		m_data.put(offset + COLOR_OFFSET + 3, a);
+
+		m_count++;
+		return this;
+	}
+
+	/**
+	 * Reads back the model matrix of an instance.
+	 */
+	public Matrix4x3d getModel(int instance, Matrix4x3d dest) {
+		return dest.set(instance*FLOATS_PER_INSTANCE, m_data);
+	}
+
+	/**
+	 * Copies the color of an instance into dest at position 0.
+	 */
+	public FloatBuffer getColor(int instance, FloatBuffer dest) {
+		final int offset = instance*FLOATS_PER_INSTANCE + COLOR_OFFSET;
+		for (int i = 0; i < 4; i++) {
+			dest.put(i, m_data.get(offset + i));
+		}
+		return dest;
+	}
+
+	/**
+	 * Uploads all instances; the previous buffer storage is orphaned, so this never waits for the GPU.
+	 */
+	public void upload() {
+		if (m_VBO == 0) m_VBO = glGenBuffers();
+
+		m_data.limit(m_count*FLOATS_PER_INSTANCE);
+		glBindBuffer(GL_ARRAY_BUFFER, m_VBO);
+		glBufferData(GL_ARRAY_BUFFER, m_data, GL_STREAM_DRAW);
+		m_data.clear();
+	}
+
+	/**
+	 * Enables the per-instance vertex attributes of the currently bound vertex array.
+	 */
+	public void setupAttributes() {
+		setupAttributes(0);
+	}
+
+	/**
+	 * Enables the per-instance vertex attributes, starting at instance first (without the base
+	 * instance of OpenGL 4.2 draws).
+	 */
+	public void setupAttributes(int first) {
+		final int offset = first*FLOATS_PER_INSTANCE;
+		glBindBuffer(GL_ARRAY_BUFFER, m_VBO);
+		for (int c = 0; c < 4; c++) {
+			setupAttribute(MODEL_ATTRIB + c, 3, offset + c*3);
+		}
+		for (int c = 0; c < 3; c++) {
+			setupAttribute(NORMAL_ATTRIB + c, 3, offset + NORMAL_OFFSET + c*3);
+		}
+		setupAttribute(COLOR_ATTRIB, 4, offset + COLOR_OFFSET);
+	}
+
+	/**
+	 * Disables the per-instance vertex attributes again, so that non-instanced programs are not affected.
+	 */
+	public void disableAttributes() {
+		for (int a = MODEL_ATTRIB; a <= COLOR_ATTRIB; a++) {
+			glDisableVertexAttribArray(a);
+		}
+	}
+
+	public void free() {
+		if (m_VBO != 0) glDeleteBuffers(m_VBO);
+		memFree(m_data);
+		m_VBO = 0;
+		m_data = null;
+	}
+
+	private static void setupAttribute(int index, int size, int offset) {
+		glEnableVertexAttribArray(index);
+		glVertexAttribPointer(index, size, GL_FLOAT, false, STRIDE, (long)offset*Float.BYTES);
+		glVertexAttribDivisor(index, 1); // advance once per instance
+	}
+}
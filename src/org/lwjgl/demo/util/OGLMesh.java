@@ -0,0 +1,29 @@
+package org.lwjgl.demo.util;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * An object whose geometry is not generated by code but loaded, e.g. from a mesh file (see MeshFile).
+ */
+public class OGLMesh extends OGLObject {
+    public OGLMesh(Color4D color) {
+        super(color);
+    }
+
+    /**
+     * Maps a mesh file and uploads its buffers (see OGLObject.load).
+     */
+    public static OGLMesh load(Path file, Color4D color) throws IOException {
+        OGLMesh mesh = new OGLMesh(color);
+        mesh.load(file);
+        return mesh;
+    }
+
+    /**
+     * Uploads the vertices and indices of mesh in the selected vertex layout.
+     */
+    public void upload(MeshBuilder mesh) {
+        bindBuffers(mesh);
+    }
+}
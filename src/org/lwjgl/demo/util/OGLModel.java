@@ -3,4 +3,26 @@ package org.lwjgl.demo.util;
 public interface OGLModel {
 	public void init(int width, int height);
 	public void render();
+
+	// called before init(); models can register and use named GPU profiler scopes
+	public default void setProfiler(GPUProfiler profiler) {
+	}
+
+	// polled before each render() of the window loop; while false (e.g. shaders still compiling) the frame is only cleared
+	public default boolean isReady() {
+		return true;
+	}
+
+	// called after each render(), e.g. to fence the data streamed during the frame
+	public default void endFrame() {
+	}
+
+	// status of the model, printed with the frame statistics once per second; empty if there is nothing to report
+	public default String summary() {
+		return "";
+	}
+
+	// called once after the last render(), while the context is still current; releases GL objects
+	public default void dispose() {
+	}
 }
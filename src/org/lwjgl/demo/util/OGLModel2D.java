@@ -1,32 +1,51 @@
 package org.lwjgl.demo.util;
 
-//https://javadoc.lwjgl.org/index.html?org/lwjgl/opengl/GL11.html
+//https://javadoc.lwjgl.org/index.html?org/lwjgl/opengl/GL30.html
 
-import static org.lwjgl.opengl.GL11.GL_COLOR_BUFFER_BIT;
-import static org.lwjgl.opengl.GL11.GL_MODELVIEW;
-import static org.lwjgl.opengl.GL11.GL_PROJECTION;
-import static org.lwjgl.opengl.GL11.glClear;
-import static org.lwjgl.opengl.GL11.glLoadIdentity;
-import static org.lwjgl.opengl.GL11.glMatrixMode;
-import static org.lwjgl.opengl.GL11.glOrtho;
-import static org.lwjgl.opengl.GL11.glViewport;
+import static org.lwjgl.opengl.GL11C.glViewport;
+import static org.lwjgl.opengl.GL20C.glUseProgram;
 
+import org.joml.Matrix4d;
+import org.lwjgl.opengl.GL;
+import org.lwjgl.opengl.GLCapabilities;
+
+/**
+ * 2D models draw with shaders on a core profile: P is the orthographic projection, M the model
+ * transform of the next drawBatch().
+ */
 abstract public class OGLModel2D implements OGLModel {
+	protected final Matrix4d
+		P  = new Matrix4d(),	// Projection
+		M  = new Matrix4d();	// Model
+	private final Matrix4d m_PM = new Matrix4d();
+
+	protected ShaderCache m_shaderCache;	// linked programs on disk (-Dogl.shader.cache=<dir>|false), null if not supported
+
 	@Override
 	public void init(int width, int height) {
         final float ratio = width/(float)height;
 
-        /* Set viewport and clear screen */
+        /* Set viewport */
         glViewport(0, 0, width, height);
-        glClear(GL_COLOR_BUFFER_BIT);
 
-        /* Set orthographic projection */
-        glMatrixMode(GL_PROJECTION);				// choose projection matrix
-        glLoadIdentity();							// set projection matrix to identity
-        glOrtho(-ratio, ratio, -1f, 1f, 1f, -1f);	// set parallel projection
-        glMatrixMode(GL_MODELVIEW);					// choose model view matrix
+        /* Set orthographic projection, formerly glOrtho on the fixed-function projection matrix */
+        P.setOrtho(-ratio, ratio, -1, 1, 1, -1);
+        M.identity();
+
+        // programs of the subclass (e.g. of a PrimitiveBatcher) compile in parallel and are checked on first use
+        GLCapabilities caps = GL.getCapabilities();
+        m_shaderCache = ShaderCache.fromSystemProperties(caps);
+        ShaderProgram.enableParallelCompile(caps);
 	}
 
 	@Override
 	abstract public void render();
+
+	/**
+	 * Draws the primitives of batch with P*M.
+	 */
+	protected void drawBatch(PrimitiveBatcher batch) {
+		batch.draw(P.mul(M, m_PM));
+		glUseProgram(0);
+	}
 }
@@ -2,65 +2,103 @@ package org.lwjgl.demo.util;
 
 // https://javadoc.lwjgl.org/index.html?org/lwjgl/opengl/GL30.html
 	
-import static org.lwjgl.demo.util.IOUtil.ioResourceToByteBuffer;
+import static org.lwjgl.opengl.GL11C.GL_BLEND;
 import static org.lwjgl.opengl.GL11C.GL_CULL_FACE;
 import static org.lwjgl.opengl.GL11C.GL_DEPTH_TEST;
-import static org.lwjgl.opengl.GL11C.GL_TRUE;
+import static org.lwjgl.opengl.GL11C.glDepthMask;
+import static org.lwjgl.opengl.GL11C.glDisable;
 import static org.lwjgl.opengl.GL11C.glEnable;
+import static org.lwjgl.opengl.GL11C.glIsEnabled;
 import static org.lwjgl.opengl.GL11C.glViewport;
-import static org.lwjgl.opengl.GL20C.GL_COMPILE_STATUS;
+import static org.lwjgl.opengl.GL15C.GL_STREAM_DRAW;
+import static org.lwjgl.opengl.GL15C.glBindBuffer;
+import static org.lwjgl.opengl.GL15C.glBufferData;
+import static org.lwjgl.opengl.GL15C.glDeleteBuffers;
+import static org.lwjgl.opengl.GL15C.glGenBuffers;
 import static org.lwjgl.opengl.GL20C.GL_FRAGMENT_SHADER;
-import static org.lwjgl.opengl.GL20C.GL_INFO_LOG_LENGTH;
-import static org.lwjgl.opengl.GL20C.GL_LINK_STATUS;
 import static org.lwjgl.opengl.GL20C.GL_VERTEX_SHADER;
-import static org.lwjgl.opengl.GL20C.glAttachShader;
-import static org.lwjgl.opengl.GL20C.glCompileShader;
-import static org.lwjgl.opengl.GL20C.glCreateProgram;
-import static org.lwjgl.opengl.GL20C.glCreateShader;
-import static org.lwjgl.opengl.GL20C.glGetAttribLocation;
-import static org.lwjgl.opengl.GL20C.glGetProgramInfoLog;
-import static org.lwjgl.opengl.GL20C.glGetProgrami;
-import static org.lwjgl.opengl.GL20C.glGetShaderInfoLog;
-import static org.lwjgl.opengl.GL20C.glGetShaderi;
+import static org.lwjgl.opengl.GL20C.glDeleteProgram;
 import static org.lwjgl.opengl.GL20C.glGetUniformLocation;
-import static org.lwjgl.opengl.GL20C.glLinkProgram;
-import static org.lwjgl.opengl.GL20C.glShaderSource;
+import static org.lwjgl.opengl.GL20C.glUniform1f;
+import static org.lwjgl.opengl.GL20C.glUniform4fv;
+import static org.lwjgl.opengl.GL20C.glUniformMatrix3fv;
 import static org.lwjgl.opengl.GL20C.glUseProgram;
-import static org.lwjgl.opengl.GL30C.glBindVertexArray;
-import static org.lwjgl.opengl.GL30C.glGenVertexArrays;
-import static org.lwjgl.system.MemoryStack.stackPush;
+import static org.lwjgl.opengl.GL21C.glUniformMatrix4x3fv;
+import static org.lwjgl.opengl.GL30C.glBindBufferBase;
+import static org.lwjgl.opengl.GL31C.GL_INVALID_INDEX;
+import static org.lwjgl.opengl.GL31C.GL_UNIFORM_BUFFER;
+import static org.lwjgl.opengl.GL31C.glGetUniformBlockIndex;
+import static org.lwjgl.opengl.GL31C.glUniformBlockBinding;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Objects;
 
+import org.joml.Matrix3d;
 import org.joml.Matrix4d;
 import org.joml.Matrix4x3d;
+import org.lwjgl.BufferUtils;
 import org.lwjgl.opengl.GL;
 import org.lwjgl.opengl.GLCapabilities;
-import org.lwjgl.system.MemoryStack;
 
 public abstract class OGLModel3D implements OGLModel {
-    protected int m_PROGRAM;	// OpenGL attribute identifiers
-    protected int m_POSITIONS;
-    protected int m_NORMALS;
+    public static final int DRAW_BLOCK_BINDING = 0;		// uniform buffer bindings of the blocks in resources/*.glsl, *.vert, *.frag
+    public static final int FRAME_BLOCK_BINDING = 1;
+    private static final int DRAW_BLOCK_BYTES = (4*4 + 3*4 + 4)*Float.BYTES;	// std140: mat4x3 u_M, mat3 u_MN, vec4 u_COLOR
+    private static final int FRAME_BLOCK_BYTES = (16 + 4*4 + 4)*Float.BYTES;	// std140: mat4 u_P, mat4x3 u_V, vec3 u_LIGHT
+    protected static final int DRAWS_PER_FRAME = 1024;
+
+    protected int m_PROGRAM;	// OpenGL program; attribute locations are OGLObject.POSITION_ATTRIB and NORMAL_ATTRIB
     
-    protected int u_VM;			// OpenGL uniform identifiers
-    protected int u_PVM;
-    protected int u_LIGHT;
+    protected int u_M;			// OpenGL uniform identifiers (u_M, u_MN and u_COLOR only without uniform ring)
+    protected int u_MN;
     protected int u_COLOR;
+    protected int u_POSITION_SCALE;
+
+    protected GPUProfiler m_profiler;	// GPU time of named scopes (disabled unless -Dogl.gpu.profile=true)
+    protected OGLUniformRing m_drawUniforms;	// per-draw uniforms of m_PROGRAM, null if they are set with glUniform*
+    protected GPUCuller m_culler;		// culls the queued draws on the GPU instead of m_frustum (-Dogl.gpu.culling=true), null if not supported
+    protected final FrustumCuller m_frustum = new FrustumCuller();	// culls objects on the CPU before their draws (-Dogl.cpu.culling=false: all visible)
+    protected final RenderQueue m_queue = new RenderQueue();		// draws of the frame, submitted sorted by drawQueue()
+    private final OGLInstanceBuffer m_queueInstances = new OGLInstanceBuffer(64);	// the visible queued draws in key order
+    private final Matrix4x3d m_queueModel = new Matrix4x3d();
+    private final Map<OGLObject, Integer> m_queueScopes = new IdentityHashMap<>();	// profiler scopes of drawQueue(), key null: translucent draws
+
+    protected int m_INSTANCED_PROGRAM;	// instanced variant
+    private int u_INSTANCED_POSITION_SCALE;
+
+    protected ShaderCache m_shaderCache;	// linked programs on disk (-Dogl.shader.cache=<dir>|false), null if not supported
+    private ShaderProgram m_program, m_instancedProgram;	// compiling since init(), null once m_PROGRAM and m_INSTANCED_PROGRAM are set
+
+    private int m_FRAME_UBO;			// per-frame uniforms shared by all programs: P, V and the light
+    private final FloatBuffer m_frameData = BufferUtils.createFloatBuffer(FRAME_BLOCK_BYTES/Float.BYTES);
 
     protected final Matrix4d
-        P   = new Matrix4d(),
-        PVM = new Matrix4d();	// Projection*View*Model transform for positions
+        P   = new Matrix4d();	// Projection
     protected final Matrix4x3d
-        V   = new Matrix4x3d(),
-        M   = new Matrix4x3d(),
-        VM  = new Matrix4x3d();	// View*Model transform used for normals
+        V   = new Matrix4x3d(),	// View
+        M   = new Matrix4x3d();	// Model of the next draw
+
+    private final Matrix4d m_PV = new Matrix4d();
+    private final Matrix3d m_normalM = new Matrix3d();
+    private final FloatBuffer m_mat3f = BufferUtils.createFloatBuffer(3*3);
+    private final FloatBuffer m_mat4x3f = BufferUtils.createFloatBuffer(4*3);
+
+    @Override
+    public void setProfiler(GPUProfiler profiler) {
+        m_profiler = profiler;
+    }
 
 	public void init(int width, int height) {
         GLCapabilities caps = GL.getCapabilities();
-        if (!caps.OpenGL30) {
-            throw new IllegalStateException("This demo requires OpenGL 3.0 or higher.");
+        if (!caps.OpenGL33) {
+            throw new IllegalStateException("This demo requires OpenGL 3.3 or higher.");
+        }
+        if (m_profiler == null) {
+            m_profiler = new GPUProfiler(caps, false, false);
         }
 
         glEnable(GL_CULL_FACE);
@@ -68,109 +106,341 @@ public abstract class OGLModel3D implements OGLModel {
 
         setSize(width, height);
 
-        // compile shaders
-        try {
-            ByteBuffer vs = ioResourceToByteBuffer("resources/shader1.vert", 4096);
-            ByteBuffer fs = ioResourceToByteBuffer("resources/shader1.frag", 4096);
-
-            int version;
-            if (caps.OpenGL33) {
-                version = 330;
-            } else if (caps.OpenGL21) {
-                version = 210;
-            } else {
-                version = 110;
-            }
+        // submit all programs (or load them from the cache of an earlier launch); they compile while the
+        // subclass builds its geometry and are checked on first use (see resolvePrograms)
+        m_shaderCache = ShaderCache.fromSystemProperties(caps);
+        ShaderProgram.enableParallelCompile(caps);
+        ResourceCache resources = ResourceCache.getDefault();
+        try (
+            ResourceCache.Resource common = resources.acquire("resources/frame.glsl");
+            ResourceCache.Resource vs = resources.acquire("resources/shader1.vert");
+            ResourceCache.Resource fs = resources.acquire("resources/shader1.frag");
+            ResourceCache.Resource ivs = resources.acquire("resources/shader1_instanced.vert");
+            ResourceCache.Resource ifs = resources.acquire("resources/shader1_instanced.frag")
+        ) {
+            // per-draw uniforms in a persistently mapped ring (-Dogl.uniform.ring=false sets them with glUniform*)
+            final boolean ring = OGLUniformRing.isSupported(caps) && !"false".equals(System.getProperty("ogl.uniform.ring"));
+
+            // glShaderSource copies the sources, they are released at the end of this block
+            m_instancedProgram = submitShaders("instanced program", "", common.data(), ivs.data(), ifs.data());
+            m_program = submitShaders("program", ring ? "#define DRAW_BLOCK\n" : "", common.data(), vs.data(), fs.data());
 
-            m_PROGRAM = compileShaders(version, vs, fs);
+            if (ring) {
+                m_drawUniforms = new OGLUniformRing(DRAW_BLOCK_BYTES, DRAWS_PER_FRAME);
+            }
+            if (Boolean.getBoolean("ogl.gpu.culling") && GPUCuller.isSupported(caps)) {
+                try (ResourceCache.Resource cs = resources.acquire("resources/cull.comp")) {
+                    m_culler = new GPUCuller(caps, m_shaderCache, cs.data());
+                }
+            }
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
 
-        // define shader uniform locations
-        u_PVM = glGetUniformLocation(m_PROGRAM, "u_PVM");
-        u_VM = glGetUniformLocation(m_PROGRAM, "u_VM");
-        u_LIGHT = glGetUniformLocation(m_PROGRAM, "u_LIGHT");
-        u_COLOR = glGetUniformLocation(m_PROGRAM, "u_COLOR");
-
-        // define shader attribute locations
-        m_POSITIONS = glGetAttribLocation(m_PROGRAM, "in_Position");
-        m_NORMALS = glGetAttribLocation(m_PROGRAM, "in_Normal");
-
-        if (caps.OpenGL30) {
-            int vao = glGenVertexArrays();
-            glBindVertexArray(vao); // bind and forget
-        }
+        m_FRAME_UBO = glGenBuffers();
+        glBindBufferBase(GL_UNIFORM_BUFFER, FRAME_BLOCK_BINDING, m_FRAME_UBO);
 	}
 	
 	abstract public void render();
-	
-    protected void setSize(int width, int height) {
-        float h = height/(float)width;
 
-        glViewport(0, 0, width, height);
-        if (h < 1.0f) {
-            P.setFrustum(-1.0/h, 1.0/h, -1.0, 1.0, 5.0, 100.0);
-        } else {
-            P.setFrustum(-1.0, 1.0, -h, h, 5.0, 100.0);
+    /**
+     * @return false while the programs are still compiling (polled without blocking with KHR_parallel_shader_compile)
+     */
+    @Override
+    public boolean isReady() {
+        return (m_program == null || (m_program.isCompleted() && m_instancedProgram.isCompleted())) && (m_culler == null || m_culler.isReady());
+    }
+
+    @Override
+    public void endFrame() {
+        if (m_drawUniforms != null) m_drawUniforms.endFrame();
+        m_frustum.endFrame();
+    }
+
+    @Override
+    public String summary() {
+        return m_frustum.summary();
+    }
+
+    /**
+     * Deletes the programs and uniform buffers. Subclasses dispose their objects and call super.dispose().
+     */
+    @Override
+    public void dispose() {
+        glUseProgram(0);
+        if (m_program != null) {
+            m_program.free();
+            m_instancedProgram.free();
+            m_program = m_instancedProgram = null;
         }
+        glDeleteProgram(m_PROGRAM);
+        glDeleteProgram(m_INSTANCED_PROGRAM);
+        glDeleteBuffers(m_FRAME_UBO);
+        m_PROGRAM = m_INSTANCED_PROGRAM = m_FRAME_UBO = 0;
+        if (m_drawUniforms != null) m_drawUniforms.free();
+        if (m_culler != null) m_culler.free();
+        m_queueInstances.free();
+        m_drawUniforms = null;
+        m_culler = null;
     }
 
-    private static int compileShaders(int version, ByteBuffer vs, ByteBuffer fs) {
-        int v = glCreateShader(GL_VERTEX_SHADER);
-        int f = glCreateShader(GL_FRAGMENT_SHADER);
+    /**
+     * Uploads the per-frame block of all programs: P, V and the light direction (in view space).
+     * Call it once per frame after V is set, before the first draw. In the first frame this waits for
+     * the programs submitted by init().
+     */
+    protected void setFrameUniforms(FloatBuffer light) {
+        if (m_program != null) resolvePrograms();
 
-        compileShader(version, v, vs);
-        compileShader(version, f, fs);
+        P.get(0, m_frameData);
+        putColumns(m_frameData, 16, V);
+        m_frameData.put(32, light, 0, 3);
 
-        int p = glCreateProgram();
-        glAttachShader(p, v);
-        glAttachShader(p, f);
-        glLinkProgram(p);
-        printProgramInfoLog(p);
+        // orphans the previous storage, so this never waits for the GPU
+        glBindBuffer(GL_UNIFORM_BUFFER, m_FRAME_UBO);
+        glBufferData(GL_UNIFORM_BUFFER, m_frameData, GL_STREAM_DRAW);
 
-        if (glGetProgrami(p, GL_LINK_STATUS) != GL_TRUE) {
-            throw new IllegalStateException("Failed to link program.");
+        if (m_culler != null) m_culler.setFrustum(P, V);
+        m_frustum.setFrustum(P, V);
+        m_queue.begin(V);
+    }
+
+    /**
+     * Sets the model matrix M, its normal matrix and the color of the next draw with m_PROGRAM.
+     * With the uniform ring this is a write into mapped memory and a single glBindBufferRange.
+     */
+    protected void setDrawUniforms(FloatBuffer color) {
+        M.normal(m_normalM);
+
+        if (m_drawUniforms != null) {
+            final int offset = m_drawUniforms.next();
+            final FloatBuffer data = m_drawUniforms.getData();
+            final int i = offset/Float.BYTES;
+
+            putColumns(data, i, M);
+            putColumns(data, i + 16, m_normalM);
+            data.put(i + 28, color, 0, 4);
+            m_drawUniforms.bind(DRAW_BLOCK_BINDING, offset);
+        } else {
+            glUniformMatrix4x3fv(u_M, false, M.get(m_mat4x3f));
+            glUniformMatrix3fv(u_MN, false, m_normalM.get(m_mat3f));
+            glUniform4fv(u_COLOR, color);
         }
+    }
 
-        glUseProgram(p);
-        return p;
+    /**
+     * Binds the vertex array of object for m_PROGRAM.
+     */
+    protected void setupObject(OGLObject object) {
+        setupObject(object, u_POSITION_SCALE);
     }
 
-    private static void compileShader(int version, int shader, ByteBuffer code) {
-        try (MemoryStack stack = stackPush()) {
-            ByteBuffer header = stack.ASCII("#version " + version + "\n#line 0\n", false);
+    private void setupObject(OGLObject object, int positionScaleID) {
+        object.bind();
+        glUniform1f(positionScaleID, object.getPositionScale());
+    }
 
-            glShaderSource(
-                shader,
-                stack.pointers(header, code),
-                stack.ints(header.remaining(), code.remaining())
-            );
+    /**
+     * Draws the primitives of batch in world space (with P*V) and binds m_PROGRAM again.
+     */
+    protected void drawBatch(PrimitiveBatcher batch) {
+        batch.draw(P.mul(V, m_PV));
+        glUseProgram(m_PROGRAM);
+    }
 
-            glCompileShader(shader);
-            printShaderInfoLog(shader);
+    /**
+     * Submits the draws recorded in m_queue since setFrameUniforms(). They are culled against the
+     * frustum (this replaces the batch of m_frustum) and sorted; consecutive draws of the same object
+     * and mode become one instanced draw call. Opaque draws are drawn without blending, translucent
+     * ones afterwards with blending and without depth writes; the blend state is restored at the end.
+     * With m_culler all draws are uploaded and culled by one compute dispatch, and each run of
+     * consecutive draws becomes one indirect draw call instead. The opaque draws of an object and all
+     * translucent draws are timed in the profiler scopes given to setQueueScope().
+     */
+    protected void drawQueue() {
+        final RenderQueue queue = m_queue;
+        final int n = queue.getCount();
+        if (n == 0) return;
 
-            if (glGetShaderi(shader, GL_COMPILE_STATUS) != GL_TRUE) {
-                throw new IllegalStateException("Failed to compile shader.");
+        // culled in recording order, the index of a draw is the same in both
+        if (m_culler == null) {
+            m_frustum.clear();
+            for (int d = 0; d < n; d++) {
+                m_frustum.add(queue.getObject(d), queue.getModel(d, m_queueModel));
             }
+            m_frustum.cull();
         }
+        queue.sort();
+
+        // the visible draws in key order, uploaded at once
+        m_queueInstances.clear();
+        for (int i = 0; i < n; i++) {
+            final int d = queue.getDraw(i);
+            if (!isQueued(d)) continue;
+            m_queueInstances.add(queue.getModel(d, m_queueModel), queue.getColor(d, 0), queue.getColor(d, 1), queue.getColor(d, 2), queue.getColor(d, 3));
+        }
+        if (m_queueInstances.getCount() == 0) return;
+        m_queueInstances.upload();
+
+        if (m_culler != null) {
+            // the same runs as below, all draws are visible to the CPU
+            m_culler.clear();
+            int first = 0;
+            for (int i = 1; i <= n; i++) {
+                if (i == n || startsRun(i - 1, i)) {
+                    m_culler.addRun(queue.getObject(queue.getDraw(first)), i - first, queue.isTranslucent(first));
+                    first = i;
+                }
+            }
+            m_culler.cull(m_queueInstances);
+        }
+
+        final boolean blending = glIsEnabled(GL_BLEND);
+        glDisable(GL_BLEND);
+        glUseProgram(m_INSTANCED_PROGRAM);
+
+        int last = -1, first = 0, count = 0, run = 0;
+        Integer scope = null;
+        for (int i = 0; i < n; i++) {
+            if (!isQueued(queue.getDraw(i))) continue;
+
+            if (last >= 0 && startsRun(last, i)) {
+                drawQueueRun(last, first, count, run++);
+                first += count;
+                count = 0;
+            }
+            if (last < 0 || startsRun(last, i)) {
+                // opaque draws are grouped by object, so each scope is entered once
+                final Integer next = m_queueScopes.get(queue.isTranslucent(i) ? null : queue.getObject(queue.getDraw(i)));
+                if (!Objects.equals(next, scope)) {
+                    if (scope != null) m_profiler.end();
+                    if (next != null) m_profiler.begin(next);
+                    scope = next;
+                }
+            }
+            if (queue.isTranslucent(i) && (last < 0 || !queue.isTranslucent(last))) {
+                // translucent draws are last: blended, and they must not hide each other
+                glEnable(GL_BLEND);
+                glDepthMask(false);
+            }
+            last = i;
+            count++;
+        }
+        drawQueueRun(last, first, count, run);
+        if (scope != null) m_profiler.end();
+
+        glDepthMask(true);
+        if (blending) glEnable(GL_BLEND); else glDisable(GL_BLEND);
+        glUseProgram(m_PROGRAM);
     }
 
-    private static void printShaderInfoLog(int obj) {
-        int infologLength = glGetShaderi(obj, GL_INFO_LOG_LENGTH);
-        if (infologLength > 0) {
-            glGetShaderInfoLog(obj);
-            System.out.format("%s\n", glGetShaderInfoLog(obj));
+    /**
+     * Times the opaque draws of object in drawQueue() in the profiler scope; object null times all
+     * translucent draws instead (they are sorted by depth, not by object).
+     */
+    protected void setQueueScope(OGLObject object, int scope) {
+        m_queueScopes.put(object, scope);
+    }
+
+    private boolean isQueued(int draw) {
+        return m_culler != null || m_frustum.isVisible(draw);
+    }
+
+    // true if the draw at position i of the sorted queue cannot be drawn together with the one at position p
+    private boolean startsRun(int p, int i) {
+        final RenderQueue queue = m_queue;
+        final int a = queue.getDraw(p), b = queue.getDraw(i);
+        return queue.getObject(a) != queue.getObject(b) || queue.getMode(a) != queue.getMode(b) || queue.isTranslucent(p) != queue.isTranslucent(i);
+    }
+
+    // the run of count instances ending with the draw at position last of the sorted queue
+    private void drawQueueRun(int last, int first, int count, int run) {
+        final int d = m_queue.getDraw(last);
+        final OGLObject object = m_queue.getObject(d);
+        setupObject(object, u_INSTANCED_POSITION_SCALE);
+        if (m_culler != null) {
+            m_queueInstances.setupAttributes();
+            m_culler.draw(run, m_queue.getMode(d));
+            m_queueInstances.disableAttributes();
+        } else {
+            object.drawInstances(m_queue.getMode(d), m_queueInstances, first, count);
+        }
+    }
+
+    protected void setSize(int width, int height) {
+        float h = height/(float)width;
+
+        glViewport(0, 0, width, height);
+        if (h < 1.0f) {
+            P.setFrustum(-1.0/h, 1.0/h, -1.0, 1.0, 5.0, 100.0);
+        } else {
+            P.setFrustum(-1.0, 1.0, -h, h, 5.0, 100.0);
         }
     }
 
-    private static void printProgramInfoLog(int obj) {
-        int infologLength = glGetProgrami(obj, GL_INFO_LOG_LENGTH);
-        if (infologLength > 0) {
-            glGetProgramInfoLog(obj);
-            System.out.format("%s\n", glGetProgramInfoLog(obj));
+    /**
+     * Submits a program for compilation; common (the per-frame block) is prepended to both shaders.
+     */
+    private ShaderProgram submitShaders(String name, String defines, ByteBuffer common, ByteBuffer vs, ByteBuffer fs) {
+        // same locations in all programs, so that the vertex arrays of the objects fit every program
+        String[] attributes = new String[Math.max(OGLObject.POSITION_ATTRIB, OGLObject.NORMAL_ATTRIB) + 1];
+        attributes[OGLObject.POSITION_ATTRIB] = "in_Position";
+        attributes[OGLObject.NORMAL_ATTRIB] = "in_Normal";
+
+        return new ShaderProgram(name, m_shaderCache).submit(
+            "#version 330\n" + defines, attributes,
+            new int[] { GL_VERTEX_SHADER, GL_FRAGMENT_SHADER },
+            new ByteBuffer[] { common, vs }, new ByteBuffer[] { common, fs }
+        );
+    }
+
+    /**
+     * Checks the submitted programs, waiting for the driver if they are not completed yet, and
+     * queries their uniforms.
+     */
+    private void resolvePrograms() {
+        m_INSTANCED_PROGRAM = m_instancedProgram.get();
+        m_PROGRAM = m_program.get();
+        m_program = m_instancedProgram = null;
+
+        // the same binding points in all programs (not part of a cached program binary)
+        for (int p : new int[] { m_INSTANCED_PROGRAM, m_PROGRAM }) {
+            bindUniformBlock(p, "Frame", FRAME_BLOCK_BINDING);
+            bindUniformBlock(p, "Draw", DRAW_BLOCK_BINDING);
         }
+
+        // define shader uniform locations
+        u_INSTANCED_POSITION_SCALE = glGetUniformLocation(m_INSTANCED_PROGRAM, "u_POSITION_SCALE");
+        u_M = glGetUniformLocation(m_PROGRAM, "u_M");
+        u_MN = glGetUniformLocation(m_PROGRAM, "u_MN");
+        u_COLOR = glGetUniformLocation(m_PROGRAM, "u_COLOR");
+        u_POSITION_SCALE = glGetUniformLocation(m_PROGRAM, "u_POSITION_SCALE");
+
+        glUseProgram(m_PROGRAM);
+    }
+
+    private static void bindUniformBlock(int program, String name, int binding) {
+        final int index = glGetUniformBlockIndex(program, name);
+        if (index != GL_INVALID_INDEX) glUniformBlockBinding(program, index, binding);
     }
 
+    // std140 stores each matrix column as a vec4
+    private static void putColumns(FloatBuffer data, int index, Matrix4x3d m) {
+        putColumn(data, index + 0, m.m00(), m.m01(), m.m02());
+        putColumn(data, index + 4, m.m10(), m.m11(), m.m12());
+        putColumn(data, index + 8, m.m20(), m.m21(), m.m22());
+        putColumn(data, index + 12, m.m30(), m.m31(), m.m32());
+    }
 
+    private static void putColumns(FloatBuffer data, int index, Matrix3d m) {
+        putColumn(data, index + 0, m.m00(), m.m01(), m.m02());
+        putColumn(data, index + 4, m.m10(), m.m11(), m.m12());
+        putColumn(data, index + 8, m.m20(), m.m21(), m.m22());
+    }
+
+    private static void putColumn(FloatBuffer data, int index, double x, double y, double z) {
+        data.put(index + 0, (float)x);
+        data.put(index + 1, (float)y);
+        data.put(index + 2, (float)z);
+    }
 }
@@ -1,83 +1,399 @@
 package org.lwjgl.demo.util;
 
 import static org.lwjgl.opengl.GL11C.GL_FLOAT;
+import static org.lwjgl.opengl.GL11C.GL_UNSIGNED_INT;
+import static org.lwjgl.opengl.GL11C.glDrawArrays;
+import static org.lwjgl.opengl.GL11C.glDrawElements;
 import static org.lwjgl.opengl.GL15C.GL_ARRAY_BUFFER;
+import static org.lwjgl.opengl.GL15C.GL_ELEMENT_ARRAY_BUFFER;
 import static org.lwjgl.opengl.GL15C.GL_STATIC_DRAW;
 import static org.lwjgl.opengl.GL15C.glBindBuffer;
 import static org.lwjgl.opengl.GL15C.glBufferData;
+import static org.lwjgl.opengl.GL15C.nglBufferData;
+import static org.lwjgl.opengl.GL15C.glDeleteBuffers;
 import static org.lwjgl.opengl.GL15C.glGenBuffers;
+import static org.lwjgl.opengl.GL15C.glGetBufferSubData;
 import static org.lwjgl.opengl.GL20C.glEnableVertexAttribArray;
 import static org.lwjgl.opengl.GL20C.glVertexAttribPointer;
-import static org.lwjgl.system.MemoryUtil.memAllocFloat;
+import static org.lwjgl.opengl.GL30C.glBindVertexArray;
+import static org.lwjgl.opengl.GL30C.glDeleteVertexArrays;
+import static org.lwjgl.opengl.GL30C.glGenVertexArrays;
+import static org.lwjgl.opengl.GL31C.glDrawArraysInstanced;
+import static org.lwjgl.opengl.GL31C.glDrawElementsInstanced;
+import static org.lwjgl.system.MemoryUtil.memAlloc;
+import static org.lwjgl.system.MemoryUtil.memAddress;
+import static org.lwjgl.system.MemoryUtil.memCopy;
 import static org.lwjgl.system.MemoryUtil.memFree;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.nio.FloatBuffer;
+import java.nio.file.Path;
 
+import org.joml.Vector3f;
+import org.joml.Vector3fc;
 import org.lwjgl.BufferUtils;
+import org.lwjgl.opengl.GL;
 
 abstract public class OGLObject {
-    protected final int m_POSITION_VBO;
-    protected final int m_NORMAL_VBO;
+    public static final int POSITION_ATTRIB = 0;	// fixed attribute locations, bound before the programs are linked
+    public static final int NORMAL_ATTRIB = 1;
+
+    protected int m_VAO;			// vertex array with the attribute setup, recorded once in bindBuffers()
+    protected int m_VBO;			// all vertex attributes, or the positions only in case of VertexLayout.SEPARATE
+    protected int m_NORMAL_VBO;		// normals in case of VertexLayout.SEPARATE
+    protected int m_IBO;			// indices, 0 for unindexed objects
     protected final FloatBuffer m_color;
-    protected FloatBuffer m_positions;
-    protected FloatBuffer m_normals;
     protected int m_vertexCount;
+    protected int m_indexCount;
+    protected VertexLayout m_layout = VertexLayout.DEFAULT;
+    private float m_positionScale = 1;
+    private float m_boundingRadius;	// bounding sphere around the origin of the object
+    private final Vector3f m_boundsMin = new Vector3f(), m_boundsMax = new Vector3f();	// axis-aligned bounding box
+    private ByteBuffer m_pendingVertices, m_pendingNormals, m_pendingIndices;	// prepared by prepareBuffers(), not uploaded yet
 
     protected OGLObject(Color4D color) {
         m_color = BufferUtils.createFloatBuffer(4);
-        m_color.put(color.toArray()).flip();
-
-        m_POSITION_VBO = glGenBuffers(); 	// generate one buffer object name
-        m_NORMAL_VBO = glGenBuffers();		// generate one buffer object name
+        color.get(m_color);
     }
     
     public int getVertexCount() { 
     	return m_vertexCount; 
     }
     
+    public int getIndexCount() {
+        return m_indexCount;
+    }
+
+    public boolean isIndexed() {
+        return m_indexCount > 0;
+    }
+
     public FloatBuffer getColor() { 
     	return m_color; 
     }
 
-    public void setupPositions(int positionsID) {
-        glBindBuffer(GL_ARRAY_BUFFER, m_POSITION_VBO);
-        glEnableVertexAttribArray(positionsID); // enable vertex attribute array positionsID
-        glVertexAttribPointer(positionsID, 3, GL_FLOAT, false, 0, 0);
+    /**
+     * @return name of the vertex array, 0 before the buffers are uploaded
+     */
+    public int getVertexArray() {
+        return m_VAO;
     }
-    
-    public void setupNormals(int normalsID) {
-        glBindBuffer(GL_ARRAY_BUFFER, m_NORMAL_VBO);
-        glEnableVertexAttribArray(normalsID); // enable vertex attribute array normalsID
-        glVertexAttribPointer(normalsID, 3, GL_FLOAT, false, 0, 0);
+
+    public VertexLayout getVertexLayout() {
+        return m_layout;
     }
 
-    protected void allocatePositionBuffer(int size) {
-        m_positions = memAllocFloat(size);
+    /**
+     * Selects the vertex layout, before bindBuffers() is called.
+     */
+    public void setVertexLayout(VertexLayout layout) {
+        m_layout = layout;
     }
-    
-    protected void allocateNormalBuffer(int size) {
-        m_normals = memAllocFloat(size);
+
+    /**
+     * @return factor the shader has to multiply the positions with (not 1 for VertexLayout.SNORM16_POSITIONS only)
+     */
+    public float getPositionScale() {
+        return m_positionScale;
+    }
+
+    /**
+     * @return radius of a sphere around the origin (of the object coordinates) containing all vertices
+     */
+    public float getBoundingRadius() {
+        return m_boundingRadius;
+    }
+
+    /**
+     * @return minimum corner of the axis-aligned box (in object coordinates) containing all vertices
+     */
+    public Vector3fc getBoundsMin() {
+        return m_boundsMin;
+    }
+
+    /**
+     * @return maximum corner of the axis-aligned box (in object coordinates) containing all vertices
+     */
+    public Vector3fc getBoundsMax() {
+        return m_boundsMax;
+    }
+
+    /**
+     * Binds the vertex array of this object, i.e. its positions and normals.
+     */
+    public void bind() {
+        glBindVertexArray(m_VAO);
+    }
+
+    /**
+     * Draws this object (indexed or not). The vertex array has to be bound already.
+     */
+    public void draw(int mode) {
+        if (isIndexed()) {
+            glDrawElements(mode, m_indexCount, GL_UNSIGNED_INT, 0);
+        } else {
+            glDrawArrays(mode, 0, m_vertexCount);
+        }
     }
-    
-    protected void bindPositionBuffer() {
-        m_positions.limit(m_vertexCount*3);
 
-        glBindBuffer(GL_ARRAY_BUFFER, m_POSITION_VBO);
-        glBufferData(GL_ARRAY_BUFFER, m_positions, GL_STATIC_DRAW);
+    /**
+     * Draws this object once per instance of the given buffer with a single draw call.
+     * The vertex array has to be bound already; the instance attributes are added to it for this draw only.
+     */
+    public void drawInstances(int mode, OGLInstanceBuffer instances) {
+        drawInstances(mode, instances, 0, instances.getCount());
+    }
+
+    /**
+     * Draws this object once per instance first .. first + count - 1 of the given buffer.
+     */
+    public void drawInstances(int mode, OGLInstanceBuffer instances, int first, int count) {
+        instances.setupAttributes(first);
+        if (isIndexed()) {
+            glDrawElementsInstanced(mode, m_indexCount, GL_UNSIGNED_INT, 0, count);
+        } else {
+            glDrawArraysInstanced(mode, 0, m_vertexCount, count);
+        }
+        instances.disableAttributes();
+    }
+
+    /**
+     * Encodes the vertices of mesh into the interleaved vertex layout. Needs no GL context.
+     * @return new buffer, to be freed by the caller
+     */
+    protected ByteBuffer encodeVertices(MeshBuilder mesh) {
+        final int vertexCount = mesh.getVertexCount();
+        final FloatBuffer positions = mesh.getPositions();
 
-        memFree(m_positions);
+        if (m_layout == VertexLayout.SNORM16_POSITIONS) {
+            float max = 0;
+            for (int i = 0; i < vertexCount*3; i++) {
+                max = Math.max(max, Math.abs(positions.get(i)));
+            }
+            m_positionScale = (max > 0) ? max : 1;
+        } else {
+            m_positionScale = 1;
+        }
 
-        m_positions = null;
+        ByteBuffer vertices = memAlloc(vertexCount*m_layout.stride);
+        m_layout.encode(positions, mesh.getNormals(), vertexCount, m_positionScale, vertices);
+        return vertices;
     }
 
-    protected void bindNormalBuffer() {
-        m_normals.limit(m_vertexCount*3);
+    /**
+     * Uploads the vertices (in the selected vertex layout) and the indices of mesh, the mesh is not changed.
+     * Falls back to VertexLayout.INTERLEAVED if the layout is not supported by the context.
+     */
+    protected void bindBuffers(MeshBuilder mesh) {
+        if (!m_layout.isSupported(GL.getCapabilities())) m_layout = VertexLayout.INTERLEAVED;
+
+        m_vertexCount = mesh.getVertexCount();
+        m_indexCount = mesh.getIndexCount();
+        computeBounds(mesh.getPositions(), m_vertexCount);
+
+        // buffer names are generated on upload, so geometry can be built without a GL context
+        if (m_VBO == 0) m_VBO = glGenBuffers();
+
+        if (m_layout == VertexLayout.SEPARATE) {
+            // exactly the used part of the mesh storage, without copying
+            final long bytes = (long)m_vertexCount*3*Float.BYTES;
+            glBindBuffer(GL_ARRAY_BUFFER, m_VBO);
+            nglBufferData(GL_ARRAY_BUFFER, bytes, memAddress(mesh.getPositions()), GL_STATIC_DRAW);
 
-        glBindBuffer(GL_ARRAY_BUFFER, m_NORMAL_VBO);
-        glBufferData(GL_ARRAY_BUFFER, m_normals, GL_STATIC_DRAW);
+            if (m_NORMAL_VBO == 0) m_NORMAL_VBO = glGenBuffers();
+            glBindBuffer(GL_ARRAY_BUFFER, m_NORMAL_VBO);
+            nglBufferData(GL_ARRAY_BUFFER, bytes, memAddress(mesh.getNormals()), GL_STATIC_DRAW);
+        } else {
+            ByteBuffer vertices = encodeVertices(mesh);
+            glBindBuffer(GL_ARRAY_BUFFER, m_VBO);
+            glBufferData(GL_ARRAY_BUFFER, vertices, GL_STATIC_DRAW);
+            memFree(vertices);
+        }
 
-        memFree(m_normals);
+        setupVertexArray();
+        if (mesh.isIndexed()) {
+            if (m_IBO == 0) m_IBO = glGenBuffers();
+            glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, m_IBO);
+            nglBufferData(GL_ELEMENT_ARRAY_BUFFER, (long)m_indexCount*Integer.BYTES, memAddress(mesh.getIndices()), GL_STATIC_DRAW);
+        }
+        glBindVertexArray(0);
+    }
+
+    /**
+     * Encodes the vertices and copies the indices of mesh for a later uploadBuffers(); mesh can be freed
+     * afterwards. Makes no GL calls, so it can run on any thread; the vertex layout has to be selected
+     * (and supported by the context) before.
+     */
+    protected void prepareBuffers(MeshBuilder mesh) {
+        freePendingBuffers();
+        m_vertexCount = mesh.getVertexCount();
+        m_indexCount = mesh.getIndexCount();
+        computeBounds(mesh.getPositions(), m_vertexCount);
+
+        if (m_layout == VertexLayout.SEPARATE) {
+            final int bytes = m_vertexCount*3*Float.BYTES;
+            m_pendingVertices = memAlloc(bytes);
+            m_pendingNormals = memAlloc(bytes);
+            memCopy(memAddress(mesh.getPositions()), memAddress(m_pendingVertices), bytes);
+            memCopy(memAddress(mesh.getNormals()), memAddress(m_pendingNormals), bytes);
+        } else {
+            m_pendingVertices = encodeVertices(mesh);
+        }
+        if (mesh.isIndexed()) {
+            m_pendingIndices = memAlloc(m_indexCount*Integer.BYTES);
+            memCopy(memAddress(mesh.getIndices()), memAddress(m_pendingIndices), m_indexCount*Integer.BYTES);
+        }
+    }
+
+    /**
+     * Uploads the buffers prepared by prepareBuffers() and frees them.
+     */
+    protected void uploadBuffers() {
+        if (m_pendingVertices == null) throw new IllegalStateException("No prepared buffers");
+
+        if (m_VBO == 0) m_VBO = glGenBuffers();
+        glBindBuffer(GL_ARRAY_BUFFER, m_VBO);
+        glBufferData(GL_ARRAY_BUFFER, m_pendingVertices, GL_STATIC_DRAW);
+        if (m_pendingNormals != null) {
+            if (m_NORMAL_VBO == 0) m_NORMAL_VBO = glGenBuffers();
+            glBindBuffer(GL_ARRAY_BUFFER, m_NORMAL_VBO);
+            glBufferData(GL_ARRAY_BUFFER, m_pendingNormals, GL_STATIC_DRAW);
+        }
+
+        setupVertexArray();
+        if (m_pendingIndices != null) {
+            if (m_IBO == 0) m_IBO = glGenBuffers();
+            glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, m_IBO);
+            glBufferData(GL_ELEMENT_ARRAY_BUFFER, m_pendingIndices, GL_STATIC_DRAW);
+        }
+        glBindVertexArray(0);
+
+        freePendingBuffers();
+    }
+
+    private void freePendingBuffers() {
+        if (m_pendingVertices != null) memFree(m_pendingVertices);
+        if (m_pendingNormals != null) memFree(m_pendingNormals);
+        if (m_pendingIndices != null) memFree(m_pendingIndices);
+        m_pendingVertices = m_pendingNormals = m_pendingIndices = null;
+    }
+
+    /**
+     * Replaces the buffers of this object by those of a mesh file (see MeshFile). The mapped blobs are
+     * uploaded as they are, without conversion; the vertex layout is the one of the file. The file is
+     * unmapped right after the upload.
+     * @throws IllegalStateException if the vertex layout of the file is not supported by the context
+     */
+    public void load(Path file) throws IOException {
+        try (MeshFile mesh = MeshFile.map(file)) {
+            if (!mesh.getLayout().isSupported(GL.getCapabilities())) {
+                throw new IllegalStateException(file + ": vertex layout " + mesh.getLayout() + " is not supported");
+            }
+
+            m_layout = mesh.getLayout();
+            m_vertexCount = mesh.getVertexCount();
+            m_indexCount = mesh.getIndexCount();
+            m_positionScale = mesh.getPositionScale();
+            m_boundingRadius = mesh.getBoundingRadius();
+            mesh.getBoundsMin(m_boundsMin);
+            mesh.getBoundsMax(m_boundsMax);
+
+            if (m_VBO == 0) m_VBO = glGenBuffers();
+            glBindBuffer(GL_ARRAY_BUFFER, m_VBO);
+            glBufferData(GL_ARRAY_BUFFER, mesh.getVertices(), GL_STATIC_DRAW);
+            if (m_layout == VertexLayout.SEPARATE) {
+                if (m_NORMAL_VBO == 0) m_NORMAL_VBO = glGenBuffers();
+                glBindBuffer(GL_ARRAY_BUFFER, m_NORMAL_VBO);
+                glBufferData(GL_ARRAY_BUFFER, mesh.getNormals(), GL_STATIC_DRAW);
+            }
+
+            setupVertexArray();
+            if (isIndexed()) {
+                if (m_IBO == 0) m_IBO = glGenBuffers();
+                glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, m_IBO);
+                glBufferData(GL_ELEMENT_ARRAY_BUFFER, mesh.getIndices(), GL_STATIC_DRAW);
+            }
+            glBindVertexArray(0);
+        }
+    }
+
+    /**
+     * Saves the buffers of this object to a mesh file (see MeshFile); they are read back from the GPU.
+     */
+    public void save(Path file) throws IOException {
+        final int vertexBytes = m_vertexCount*((m_layout == VertexLayout.SEPARATE) ? 3*Float.BYTES : m_layout.stride);
+        ByteBuffer vertices = readBuffer(GL_ARRAY_BUFFER, m_VBO, vertexBytes);
+        ByteBuffer normals = (m_layout == VertexLayout.SEPARATE) ? readBuffer(GL_ARRAY_BUFFER, m_NORMAL_VBO, vertexBytes) : null;
+        ByteBuffer indices = isIndexed() ? readBuffer(GL_ELEMENT_ARRAY_BUFFER, m_IBO, m_indexCount*Integer.BYTES) : null;
+        try {
+            MeshFile.write(file, m_layout, m_vertexCount, m_indexCount, m_positionScale, m_boundingRadius, m_boundsMin, m_boundsMax, vertices, normals, indices);
+        } finally {
+            memFree(vertices);
+            if (normals != null) memFree(normals);
+            if (indices != null) memFree(indices);
+        }
+    }
+
+    private ByteBuffer readBuffer(int target, int buffer, int bytes) {
+        ByteBuffer data = memAlloc(bytes);
+        // the element array binding is vertex array state, so read it through the vertex array
+        if (target == GL_ELEMENT_ARRAY_BUFFER) glBindVertexArray(m_VAO);
+        glBindBuffer(target, buffer);
+        glGetBufferSubData(target, 0, data);
+        if (target == GL_ELEMENT_ARRAY_BUFFER) glBindVertexArray(0);
+        return data;
+    }
+
+    // records the attribute setup once, a draw only binds the vertex array; it stays bound for the
+    // element array binding, which is part of the vertex array state
+    private void setupVertexArray() {
+        if (m_VAO == 0) m_VAO = glGenVertexArrays();
+        glBindVertexArray(m_VAO);
+
+        glBindBuffer(GL_ARRAY_BUFFER, m_VBO);
+        glEnableVertexAttribArray(POSITION_ATTRIB);
+        glVertexAttribPointer(POSITION_ATTRIB, 3, m_layout.positionType, m_layout.positionNormalized, m_layout.stride, 0);
+
+        glBindBuffer(GL_ARRAY_BUFFER, (m_layout == VertexLayout.SEPARATE) ? m_NORMAL_VBO : m_VBO);
+        glEnableVertexAttribArray(NORMAL_ATTRIB);
+        glVertexAttribPointer(NORMAL_ATTRIB, m_layout.normalSize, m_layout.normalType, m_layout.normalType != GL_FLOAT, m_layout.stride, m_layout.normalOffset);
+    }
+
+    // bounding sphere around the origin and axis-aligned bounding box, in one pass
+    private void computeBounds(FloatBuffer positions, int vertexCount) {
+        if (vertexCount == 0) {
+            m_boundingRadius = 0;
+            m_boundsMin.zero();
+            m_boundsMax.zero();
+            return;
+        }
+
+        float max = 0;
+        float minX = Float.POSITIVE_INFINITY, minY = Float.POSITIVE_INFINITY, minZ = Float.POSITIVE_INFINITY;
+        float maxX = Float.NEGATIVE_INFINITY, maxY = Float.NEGATIVE_INFINITY, maxZ = Float.NEGATIVE_INFINITY;
+        for (int i = 0; i < vertexCount*3; i += 3) {
+            final float x = positions.get(i), y = positions.get(i + 1), z = positions.get(i + 2);
+            max = Math.max(max, x*x + y*y + z*z);
+            minX = Math.min(minX, x); minY = Math.min(minY, y); minZ = Math.min(minZ, z);
+            maxX = Math.max(maxX, x); maxY = Math.max(maxY, y); maxZ = Math.max(maxZ, z);
+        }
+        m_boundingRadius = (float)Math.sqrt(max);
+        m_boundsMin.set(minX, minY, minZ);
+        m_boundsMax.set(maxX, maxY, maxZ);
+    }
 
-        m_normals = null;
+    /**
+     * Deletes the vertex array and the buffers of this object, and frees buffers not uploaded yet.
+     * It can be uploaded again with bindBuffers().
+     */
+    public void dispose() {
+        freePendingBuffers();
+        if (m_VAO != 0) glDeleteVertexArrays(m_VAO);
+        if (m_VBO != 0) glDeleteBuffers(m_VBO);
+        if (m_NORMAL_VBO != 0) glDeleteBuffers(m_NORMAL_VBO);
+        if (m_IBO != 0) glDeleteBuffers(m_IBO);
+        m_VAO = m_VBO = m_NORMAL_VBO = m_IBO = 0;
+        m_vertexCount = m_indexCount = 0;
     }
 }
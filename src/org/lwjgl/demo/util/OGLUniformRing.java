@@ -0,0 +1,142 @@
+package org.lwjgl.demo.util;
+
+// https://registry.khronos.org/OpenGL/extensions/ARB/ARB_buffer_storage.txt
+// https://www.khronos.org/opengl/wiki/Buffer_Object_Streaming#Persistent_mapping
+
+import static org.lwjgl.opengl.GL11C.glGetInteger;
+import static org.lwjgl.opengl.GL15C.glBindBuffer;
+import static org.lwjgl.opengl.GL15C.glDeleteBuffers;
+import static org.lwjgl.opengl.GL15C.glGenBuffers;
+import static org.lwjgl.opengl.GL30C.GL_MAP_WRITE_BIT;
+import static org.lwjgl.opengl.GL30C.glBindBufferRange;
+import static org.lwjgl.opengl.GL30C.glMapBufferRange;
+import static org.lwjgl.opengl.GL31C.GL_UNIFORM_BUFFER;
+import static org.lwjgl.opengl.GL31C.GL_UNIFORM_BUFFER_OFFSET_ALIGNMENT;
+import static org.lwjgl.opengl.GL32C.GL_SYNC_FLUSH_COMMANDS_BIT;
+import static org.lwjgl.opengl.GL32C.GL_SYNC_GPU_COMMANDS_COMPLETE;
+import static org.lwjgl.opengl.GL32C.GL_TIMEOUT_EXPIRED;
+import static org.lwjgl.opengl.GL32C.GL_WAIT_FAILED;
+import static org.lwjgl.opengl.GL32C.glClientWaitSync;
+import static org.lwjgl.opengl.GL32C.glDeleteSync;
+import static org.lwjgl.opengl.GL32C.glFenceSync;
+import static org.lwjgl.opengl.GL44C.GL_MAP_COHERENT_BIT;
+import static org.lwjgl.opengl.GL44C.GL_MAP_PERSISTENT_BIT;
+import static org.lwjgl.opengl.GL44C.glBufferStorage;
+import static org.lwjgl.system.MemoryUtil.NULL;
+
+import java.nio.FloatBuffer;
+
+import org.lwjgl.opengl.GLCapabilities;
+
+/**
+ * Streams uniform blocks of a fixed size (e.g. the per-draw transforms and color) through one
+ * persistently and coherently mapped uniform buffer (ARB_buffer_storage).
+ *
+ * The buffer is split into FRAMES regions, one per frame in flight. A draw writes its block
+ * directly into mapped memory and binds it with glBindBufferRange; there is nothing to upload.
+ * endFrame() puts a fence behind the commands of the frame, and a region is reused only after
+ * its fence has been signaled, so the CPU never overwrites data the GPU still reads.
+ */
+public class OGLUniformRing {
+	private static final int FRAMES = 3;					// triple buffering
+	private static final long WAIT_TIMEOUT = 1_000_000L;	// [ns] per glClientWaitSync call
+
+	private final int m_blockBytes;		// bytes of a block as declared in the shader
+	private final int m_stride;			// block size rounded up to GL_UNIFORM_BUFFER_OFFSET_ALIGNMENT
+	private final int m_regionBytes;	// bytes of the blocks of one frame
+	private final long[] m_fences = new long[FRAMES];
+	private int m_UBO;
+	private FloatBuffer m_data;			// the whole mapped buffer
+	private int m_region;				// region of the current frame
+	private int m_used;					// bytes used in the current region
+
+	public static boolean isSupported(GLCapabilities caps) {
+		return caps.OpenGL33 && (caps.OpenGL44 || caps.GL_ARB_buffer_storage);
+	}
+
+	/**
+	 * @param blockBytes		size of one block (std140 layout)
+	 * @param blocksPerFrame	maximum number of blocks written per frame
+	 */
+	public OGLUniformRing(int blockBytes, int blocksPerFrame) {
+		final int alignment = glGetInteger(GL_UNIFORM_BUFFER_OFFSET_ALIGNMENT);
+
+		m_blockBytes = blockBytes;
+		m_stride = (blockBytes + alignment - 1)/alignment*alignment;
+		m_regionBytes = m_stride*blocksPerFrame;
+
+		final int flags = GL_MAP_WRITE_BIT | GL_MAP_PERSISTENT_BIT | GL_MAP_COHERENT_BIT;
+		final long size = (long)m_regionBytes*FRAMES;
+		m_UBO = glGenBuffers();
+		glBindBuffer(GL_UNIFORM_BUFFER, m_UBO);
+		glBufferStorage(GL_UNIFORM_BUFFER, size, flags);
+		m_data = glMapBufferRange(GL_UNIFORM_BUFFER, 0, size, flags).asFloatBuffer();
+		glBindBuffer(GL_UNIFORM_BUFFER, 0);
+	}
+
+	/**
+	 * Reserves a block of the current frame. Waits for the GPU only on the first block of a
+	 * frame, and only if the region of that frame is still in use.
+	 * @return byte offset of the block; its floats start at getData() index offset/4
+	 */
+	public int next() {
+		if (m_used == 0) waitForRegion(m_region);
+		if (m_used + m_stride > m_regionBytes) {
+			throw new IllegalStateException("Uniform ring overflow: more than " + m_regionBytes/m_stride + " blocks per frame");
+		}
+
+		final int offset = m_region*m_regionBytes + m_used;
+		m_used += m_stride;
+		return offset;
+	}
+
+	/**
+	 * @return the mapped buffer; writes are visible to the GPU without flushing (coherent mapping)
+	 */
+	public FloatBuffer getData() {
+		return m_data;
+	}
+
+	/**
+	 * Binds the block at offset (returned by next()) to a uniform buffer binding point.
+	 */
+	public void bind(int binding, int offset) {
+		glBindBufferRange(GL_UNIFORM_BUFFER, binding, m_UBO, offset, m_blockBytes);
+	}
+
+	/**
+	 * Fences the blocks of the current frame and switches to the region of the next frame.
+	 */
+	public void endFrame() {
+		if (m_used == 0) return;
+
+		m_fences[m_region] = glFenceSync(GL_SYNC_GPU_COMMANDS_COMPLETE, 0);
+		m_region = (m_region + 1)%FRAMES;
+		m_used = 0;
+	}
+
+	public void free() {
+		for (int r = 0; r < FRAMES; r++) {
+			if (m_fences[r] != NULL) glDeleteSync(m_fences[r]);
+			m_fences[r] = NULL;
+		}
+		// deleting a buffer unmaps it
+		if (m_UBO != 0) glDeleteBuffers(m_UBO);
+		m_UBO = 0;
+		m_data = null;
+	}
+
+	private void waitForRegion(int region) {
+		final long fence = m_fences[region];
+		if (fence == NULL) return;
+
+		int result;
+		do {
+			result = glClientWaitSync(fence, GL_SYNC_FLUSH_COMMANDS_BIT, WAIT_TIMEOUT);
+		} while (result == GL_TIMEOUT_EXPIRED);
+		if (result == GL_WAIT_FAILED) throw new IllegalStateException("glClientWaitSync failed");
+
+		glDeleteSync(fence);
+		m_fences[region] = NULL;
+	}
+}
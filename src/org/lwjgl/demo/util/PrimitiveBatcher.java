@@ -0,0 +1,235 @@
+package org.lwjgl.demo.util;
+
+// https://www.khronos.org/opengl/wiki/Legacy_OpenGL#Immediate_mode
+
+import static org.lwjgl.opengl.GL11C.GL_FLOAT;
+import static org.lwjgl.opengl.GL11C.GL_LINES;
+import static org.lwjgl.opengl.GL11C.GL_POINTS;
+import static org.lwjgl.opengl.GL11C.GL_TRIANGLES;
+import static org.lwjgl.opengl.GL11C.glDrawArrays;
+import static org.lwjgl.opengl.GL15C.GL_ARRAY_BUFFER;
+import static org.lwjgl.opengl.GL15C.GL_STATIC_DRAW;
+import static org.lwjgl.opengl.GL15C.glBindBuffer;
+import static org.lwjgl.opengl.GL15C.glDeleteBuffers;
+import static org.lwjgl.opengl.GL15C.glGenBuffers;
+import static org.lwjgl.opengl.GL15C.nglBufferData;
+import static org.lwjgl.opengl.GL20C.GL_FRAGMENT_SHADER;
+import static org.lwjgl.opengl.GL20C.GL_VERTEX_SHADER;
+import static org.lwjgl.opengl.GL20C.glDeleteProgram;
+import static org.lwjgl.opengl.GL20C.glEnableVertexAttribArray;
+import static org.lwjgl.opengl.GL20C.glGetUniformLocation;
+import static org.lwjgl.opengl.GL20C.glUniformMatrix4fv;
+import static org.lwjgl.opengl.GL20C.glUseProgram;
+import static org.lwjgl.opengl.GL20C.glVertexAttribPointer;
+import static org.lwjgl.opengl.GL30C.glBindVertexArray;
+import static org.lwjgl.opengl.GL30C.glDeleteVertexArrays;
+import static org.lwjgl.opengl.GL30C.glGenVertexArrays;
+import static org.lwjgl.system.MemoryUtil.memAddress;
+import static org.lwjgl.system.MemoryUtil.memAllocFloat;
+import static org.lwjgl.system.MemoryUtil.memFree;
+import static org.lwjgl.system.MemoryUtil.memRealloc;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+
+import org.joml.Matrix4dc;
+import org.lwjgl.BufferUtils;
+
+/**
+ * Retained replacement for glBegin/glColor/glVertex/glEnd: the primitives are recorded once into
+ * one vertex buffer (position and color per vertex) and drawn every frame with a single bind and
+ * one glDrawArrays per run of the same mode. Meant for axes, debug lines and small colored shapes.
+ *
+ * The buffer is only uploaded again after the primitives have changed (clear() and new begin/end).
+ * The program is submitted as a ShaderProgram and checked by the first draw().
+ * Typical use:
+ * <pre>
+ * axes.begin(GL_LINES).color(1, 0, 0).vertex(-1, 0, 0).vertex(1, 0, 0).end();
+ * axes.draw(PV);
+ * </pre>
+ */
+public class PrimitiveBatcher {
+	public static final int POSITION_ATTRIB = 0;	// attribute locations in resources/batch.vert
+	public static final int COLOR_ATTRIB = 1;
+	private static final int FLOATS = 3 + 4;		// x, y, z, r, g, b, a
+	private static final int INITIAL_VERTICES = 64;
+
+	private FloatBuffer m_vertices = memAllocFloat(INITIAL_VERTICES*FLOATS);
+	private int m_vertexCount;
+	private int[] m_modes = new int[4];			// runs of the same mode, each drawn with one glDrawArrays
+	private int[] m_firsts = new int[4];
+	private int[] m_counts = new int[4];
+	private int m_runCount;
+	private int m_mode = -1;					// mode between begin() and end()
+	private final float[] m_vertex = {0, 0, 0, 0, 0, 0, 1};	// staging: position and current color
+	private boolean m_dirty;					// vertices not uploaded yet
+
+	private int m_VAO;
+	private int m_VBO;
+	private ShaderProgram m_program;	// compiling since the constructor, null once m_PROGRAM is set
+	private int m_PROGRAM;
+	private int u_MVP;
+	private final FloatBuffer m_mat4f = BufferUtils.createFloatBuffer(16);
+
+	/**
+	 * @param cache linked programs on disk, may be null
+	 */
+	public PrimitiveBatcher(ShaderCache cache) {
+		ResourceCache resources = ResourceCache.getDefault();
+		try (
+			ResourceCache.Resource vs = resources.acquire("resources/batch.vert");
+			ResourceCache.Resource fs = resources.acquire("resources/batch.frag")
+		) {
+			// the attribute locations are set in resources/batch.vert
+			m_program = new ShaderProgram("batch program", cache).submit(
+				"#version 330\n", new String[0],
+				new int[] { GL_VERTEX_SHADER, GL_FRAGMENT_SHADER },
+				new ByteBuffer[] { vs.data() }, new ByteBuffer[] { fs.data() }
+			);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+
+		m_VAO = glGenVertexArrays();
+		m_VBO = glGenBuffers();
+		glBindVertexArray(m_VAO);
+		glBindBuffer(GL_ARRAY_BUFFER, m_VBO);
+		glVertexAttribPointer(POSITION_ATTRIB, 3, GL_FLOAT, false, FLOATS*Float.BYTES, 0);
+		glEnableVertexAttribArray(POSITION_ATTRIB);
+		glVertexAttribPointer(COLOR_ATTRIB, 4, GL_FLOAT, false, FLOATS*Float.BYTES, 3*Float.BYTES);
+		glEnableVertexAttribArray(COLOR_ATTRIB);
+		glBindVertexArray(0);
+		glBindBuffer(GL_ARRAY_BUFFER, 0);
+	}
+
+	/**
+	 * @return false while the program is still compiling (see ShaderProgram.isCompleted())
+	 */
+	public boolean isReady() {
+		return m_program == null || m_program.isCompleted();
+	}
+
+	public int getVertexCount() {
+		return m_vertexCount;
+	}
+
+	/**
+	 * Starts a primitive of mode, e.g. GL_LINES or GL_TRIANGLES; consecutive lists of the same mode
+	 * are merged into one draw call.
+	 */
+	public PrimitiveBatcher begin(int mode) {
+		if (m_mode >= 0) throw new IllegalStateException("begin() without end()");
+		m_mode = mode;
+
+		final boolean list = mode == GL_POINTS || mode == GL_LINES || mode == GL_TRIANGLES;
+		if (!list || m_runCount == 0 || m_modes[m_runCount - 1] != mode) {
+			if (m_runCount == m_modes.length) {
+				m_modes = Arrays.copyOf(m_modes, m_runCount*2);
+				m_firsts = Arrays.copyOf(m_firsts, m_runCount*2);
+				m_counts = Arrays.copyOf(m_counts, m_runCount*2);
+			}
+			m_modes[m_runCount] = mode;
+			m_firsts[m_runCount] = m_vertexCount;
+			m_counts[m_runCount] = 0;
+			m_runCount++;
+		}
+		return this;
+	}
+
+	/**
+	 * Sets the color of the following vertices.
+	 */
+	public PrimitiveBatcher color(float r, float g, float b) {
+		return color(r, g, b, 1);
+	}
+
+	public PrimitiveBatcher color(float r, float g, float b, float a) {
+		m_vertex[3] = r;
+		m_vertex[4] = g;
+		m_vertex[5] = b;
+		m_vertex[6] = a;
+		return this;
+	}
+
+	public PrimitiveBatcher color(Color4D color) {
+		return color(color.r, color.g, color.b, color.a);
+	}
+
+	/**
+	 * Adds a vertex with the current color to the current primitive.
+	 */
+	public PrimitiveBatcher vertex(float x, float y, float z) {
+		if (m_mode < 0) throw new IllegalStateException("vertex() outside begin() and end()");
+		if ((m_vertexCount + 1)*FLOATS > m_vertices.capacity()) {
+			m_vertices = memRealloc(m_vertices, m_vertices.capacity()*2);
+		}
+
+		m_vertex[0] = x;
+		m_vertex[1] = y;
+		m_vertex[2] = z;
+		m_vertices.put(m_vertexCount*FLOATS, m_vertex, 0, FLOATS);
+		m_vertexCount++;
+		m_counts[m_runCount - 1]++;
+		m_dirty = true;
+		return this;
+	}
+
+	public PrimitiveBatcher end() {
+		if (m_mode < 0) throw new IllegalStateException("end() without begin()");
+		m_mode = -1;
+		if (m_counts[m_runCount - 1] == 0) m_runCount--;
+		return this;
+	}
+
+	/**
+	 * Removes all primitives; the storage is kept.
+	 */
+	public PrimitiveBatcher clear() {
+		m_vertexCount = 0;
+		m_runCount = 0;
+		m_mode = -1;
+		m_dirty = true;
+		return this;
+	}
+
+	/**
+	 * Draws all primitives with the model-view-projection matrix mvp. Changes the current program
+	 * and vertex array. The first draw waits for the program if it is not completed yet.
+	 */
+	public void draw(Matrix4dc mvp) {
+		if (m_runCount == 0) return;
+		if (m_program != null) {
+			m_PROGRAM = m_program.get();
+			m_program = null;
+			u_MVP = glGetUniformLocation(m_PROGRAM, "u_MVP");
+		}
+
+		glBindVertexArray(m_VAO);
+		if (m_dirty) {
+			glBindBuffer(GL_ARRAY_BUFFER, m_VBO);
+			nglBufferData(GL_ARRAY_BUFFER, (long)m_vertexCount*FLOATS*Float.BYTES, memAddress(m_vertices), GL_STATIC_DRAW);
+			glBindBuffer(GL_ARRAY_BUFFER, 0);
+			m_dirty = false;
+		}
+
+		glUseProgram(m_PROGRAM);
+		glUniformMatrix4fv(u_MVP, false, mvp.get(m_mat4f));
+		for (int r = 0; r < m_runCount; r++) {
+			glDrawArrays(m_modes[r], m_firsts[r], m_counts[r]);
+		}
+	}
+
+	public void free() {
+		glDeleteVertexArrays(m_VAO);
+		glDeleteBuffers(m_VBO);
+		if (m_program != null) m_program.free();
+		glDeleteProgram(m_PROGRAM);
+		m_program = null;
+		m_VAO = m_VBO = m_PROGRAM = 0;
+		if (m_vertices != null) memFree(m_vertices);
+		m_vertices = null;
+	}
+}
@@ -0,0 +1,194 @@
+package org.lwjgl.demo.util;
+
+// https://realtimecollision.blogspot.com/2008/02/sorting-draw-calls.html
+// http://stereopsis.com/radix.html
+
+import java.util.Arrays;
+
+import org.joml.Matrix4x3d;
+import org.joml.Matrix4x3dc;
+import org.joml.Vector3fc;
+
+/**
+ * Draws of a frame, recorded in any order and submitted sorted by a 64-bit key per draw:
+ * <pre>
+ * opaque:      0 | vertex array (16) | mode (4) | depth (24)            | 0 (19)
+ * translucent: 1 | far to near (24)  | vertex array (16) | mode (4)    | 0 (19)
+ * </pre>
+ * Opaque draws come first, grouped by vertex array and mode (the state that changes between draws;
+ * all queued draws use the same program and carry their color per instance) and front to back
+ * within a group, so that hidden fragments fail the early depth test. Translucent draws (alpha < 1)
+ * follow back to front, as blending requires. The depth is the view space distance of the center of
+ * the object's bounding box; as a non-negative float its bits are ordered like its value.
+ *
+ * The keys are sorted with an LSD radix sort, 8 bits per pass; passes over bytes that are the same
+ * in all keys (e.g. the unused low bits) are skipped. Recording and sorting allocate nothing once the
+ * arrays have grown to the number of draws of a frame.
+ */
+public class RenderQueue {
+	private static final int INITIAL_CAPACITY = 64;
+	private static final long TRANSLUCENT = 1L << 63;
+
+	private final Matrix4x3d m_V = new Matrix4x3d();	// view of the frame, for the depths
+
+	private int m_count;
+	private boolean m_sorted;		// m_keys are in key order, m_order is valid
+	private long[] m_keys = new long[INITIAL_CAPACITY];
+	private int[] m_order = new int[INITIAL_CAPACITY];		// draws in key order, valid after sort()
+	private long[] m_keysTemp = new long[INITIAL_CAPACITY];	// radix sort buffers
+	private int[] m_orderTemp = new int[INITIAL_CAPACITY];
+	private final int[] m_histograms = new int[8*256];		// one per key byte
+
+	// draws in recording order
+	private OGLObject[] m_objects = new OGLObject[INITIAL_CAPACITY];
+	private int[] m_modes = new int[INITIAL_CAPACITY];
+	private double[] m_models = new double[INITIAL_CAPACITY*12];	// mat4x3, column major
+	private float[] m_colors = new float[INITIAL_CAPACITY*4];
+
+	/**
+	 * Removes all draws and sets the view of the following ones.
+	 */
+	public void begin(Matrix4x3dc V) {
+		m_V.set(V);
+		Arrays.fill(m_objects, 0, m_count, null);
+		m_count = 0;
+		m_sorted = false;
+	}
+
+	public int getCount() {
+		return m_count;
+	}
+
+	public RenderQueue add(OGLObject object, int mode, Matrix4x3dc M, Color4D color) {
+		return add(object, mode, M, color.r, color.g, color.b, color.a);
+	}
+
+	/**
+	 * Records a draw of object with model matrix M and color r, g, b, a; it is translucent if a < 1.
+	 * Draws are numbered in recording order, starting at 0.
+	 */
+	public RenderQueue add(OGLObject object, int mode, Matrix4x3dc M, float r, float g, float b, float a) {
+		if (m_sorted) throw new IllegalStateException("add() after sort() without begin()");
+		if (m_count == m_keys.length) grow(m_count*2);
+		final int i = m_count++;
+
+		m_objects[i] = object;
+		m_modes[i] = mode;
+		M.get(m_models, i*12);
+		m_colors[i*4 + 0] = r;
+		m_colors[i*4 + 1] = g;
+		m_colors[i*4 + 2] = b;
+		m_colors[i*4 + 3] = a;
+
+		// view space z of the bounding box center, negative in front of the camera
+		final Vector3fc min = object.getBoundsMin(), max = object.getBoundsMax();
+		final double cx = (min.x() + max.x())*0.5, cy = (min.y() + max.y())*0.5, cz = (min.z() + max.z())*0.5;
+		final double x = M.m00()*cx + M.m10()*cy + M.m20()*cz + M.m30();
+		final double y = M.m01()*cx + M.m11()*cy + M.m21()*cz + M.m31();
+		final double z = M.m02()*cx + M.m12()*cy + M.m22()*cz + M.m32();
+		final double viewZ = m_V.m02()*x + m_V.m12()*y + m_V.m22()*z + m_V.m32();
+		final int depth = Float.floatToRawIntBits((float)Math.max(0, -viewZ)) >>> 7;	// 24 bits, ordered like the distance
+
+		final long vao = object.getVertexArray() & 0xFFFF;
+		final long state = vao << 4 | (mode & 0xF);
+		if (a < 1) {
+			m_keys[i] = TRANSLUCENT | (long)(~depth & 0xFFFFFF) << 39 | state << 19;
+		} else {
+			m_keys[i] = state << 43 | (long)depth << 19;
+		}
+		return this;
+	}
+
+	/**
+	 * Sorts the draws by their keys; the order is stable, draws with equal keys keep their recording order.
+	 */
+	public void sort() {
+		final int n = m_count;
+		if (m_sorted || n == 0) return;
+		m_sorted = true;
+		long[] keys = m_keys, keysTemp = m_keysTemp;
+		int[] order = m_order, orderTemp = m_orderTemp;
+		for (int i = 0; i < n; i++) {
+			order[i] = i;
+		}
+
+		// histograms of all 8 bytes in one pass
+		final int[] histograms = m_histograms;
+		Arrays.fill(histograms, 0);
+		for (int i = 0; i < n; i++) {
+			final long key = keys[i];
+			for (int b = 0; b < 8; b++) {
+				histograms[b*256 + (int)(key >>> (b*8) & 0xFF)]++;
+			}
+		}
+
+		for (int b = 0; b < 8; b++) {
+			final int h = b*256;
+			if (histograms[h + (int)(keys[0] >>> (b*8) & 0xFF)] == n) continue;	// byte b is the same in all keys
+
+			// prefix sums: first position of each byte value
+			int sum = 0;
+			for (int v = 0; v < 256; v++) {
+				final int count = histograms[h + v];
+				histograms[h + v] = sum;
+				sum += count;
+			}
+			final int shift = b*8;
+			for (int i = 0; i < n; i++) {
+				final int dest = histograms[h + (int)(keys[i] >>> shift & 0xFF)]++;
+				keysTemp[dest] = keys[i];
+				orderTemp[dest] = order[i];
+			}
+
+			final long[] k = keys; keys = keysTemp; keysTemp = k;
+			final int[] o = order; order = orderTemp; orderTemp = o;
+		}
+
+		// the sorted data may have ended up in the temporary arrays
+		m_keys = keys;
+		m_keysTemp = keysTemp;
+		m_order = order;
+		m_orderTemp = orderTemp;
+	}
+
+	/**
+	 * @return the draw (index in recording order) at position i of the sorted queue
+	 */
+	public int getDraw(int i) {
+		return m_order[i];
+	}
+
+	/**
+	 * @return true if the draw at position i of the sorted queue is translucent
+	 */
+	public boolean isTranslucent(int i) {
+		return m_keys[i] < 0;
+	}
+
+	public OGLObject getObject(int draw) {
+		return m_objects[draw];
+	}
+
+	public int getMode(int draw) {
+		return m_modes[draw];
+	}
+
+	public Matrix4x3d getModel(int draw, Matrix4x3d dest) {
+		return dest.set(m_models, draw*12);
+	}
+
+	public float getColor(int draw, int component) {
+		return m_colors[draw*4 + component];
+	}
+
+	private void grow(int capacity) {
+		m_keys = Arrays.copyOf(m_keys, capacity);
+		m_order = Arrays.copyOf(m_order, capacity);
+		m_keysTemp = new long[capacity];
+		m_orderTemp = new int[capacity];
+		m_objects = Arrays.copyOf(m_objects, capacity);
+		m_modes = Arrays.copyOf(m_modes, capacity);
+		m_models = Arrays.copyOf(m_models, capacity*12);
+		m_colors = Arrays.copyOf(m_colors, capacity*4);
+	}
+}
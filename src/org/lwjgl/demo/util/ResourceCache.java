@@ -0,0 +1,141 @@
+package org.lwjgl.demo.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * Bounded cache of resource data loaded with IOUtil.ioResourceMap (memory-mapped files, class path
+ * resources read in one pass). A resource is used between acquire() and Resource.close(); it is
+ * never evicted while in use. Released resources stay cached until the cached bytes exceed the
+ * limit, then the least recently used ones are dropped (a mapping is unmapped once its buffer is
+ * garbage collected). Typical use:
+ * <pre>
+ * try (ResourceCache.Resource vs = resources.acquire("resources/shader1.vert")) {
+ *     glShaderSource(shader, memUTF8(vs.data()));
+ * }
+ * </pre>
+ * The cache is thread-safe; resources are loaded outside the lock.
+ */
+public class ResourceCache {
+	private static ResourceCache s_default;
+
+	private final long m_maxBytes;
+	private final LinkedHashMap<String, Entry> m_entries = new LinkedHashMap<>(16, 0.75f, true);	// LRU order
+	private long m_bytes;		// bytes of all cached entries
+
+	public ResourceCache(long maxBytes) {
+		m_maxBytes = maxBytes;
+	}
+
+	/**
+	 * @return the cache shared by the models, limited to ogl.resource.cache bytes (default 64 MiB)
+	 */
+	public static synchronized ResourceCache getDefault() {
+		if (s_default == null) s_default = new ResourceCache(Long.getLong("ogl.resource.cache", 64L << 20));
+		return s_default;
+	}
+
+	/**
+	 * Loads a resource or reuses the cached data; close the returned Resource to release it.
+	 */
+	public Resource acquire(String name) throws IOException {
+		synchronized (this) {
+			Entry entry = m_entries.get(name);
+			if (entry != null) {
+				entry.m_refs++;
+				return new Resource(name, entry.m_data);
+			}
+		}
+
+		final ByteBuffer data = IOUtil.ioResourceMap(name);
+
+		synchronized (this) {
+			Entry entry = m_entries.get(name);
+			if (entry == null) {
+				// the same resource may have been loaded by another thread meanwhile
+				entry = new Entry(data);
+				m_entries.put(name, entry);
+				m_bytes += data.capacity();
+			}
+			entry.m_refs++;
+			evict();
+			return new Resource(name, entry.m_data);
+		}
+	}
+
+	public synchronized long getCachedBytes() {
+		return m_bytes;
+	}
+
+	/**
+	 * Drops all resources not in use.
+	 */
+	public synchronized void clear() {
+		final Iterator<Entry> it = m_entries.values().iterator();
+		while (it.hasNext()) {
+			Entry entry = it.next();
+			if (entry.m_refs == 0) {
+				m_bytes -= entry.m_data.capacity();
+				it.remove();
+			}
+		}
+	}
+
+	private synchronized void release(String name) {
+		final Entry entry = m_entries.get(name);
+		if (entry == null || entry.m_refs == 0) throw new IllegalStateException(name + " is not acquired");
+		entry.m_refs--;
+		evict();
+	}
+
+	// drops the least recently used entries not in use until the cache fits
+	private void evict() {
+		final Iterator<Entry> it = m_entries.values().iterator();
+		while (m_bytes > m_maxBytes && it.hasNext()) {
+			Entry entry = it.next();
+			if (entry.m_refs == 0) {
+				m_bytes -= entry.m_data.capacity();
+				it.remove();
+			}
+		}
+	}
+
+	private static class Entry {
+		final ByteBuffer m_data;	// read-only
+		int m_refs;					// acquired and not yet released
+
+		Entry(ByteBuffer data) {
+			m_data = data;
+		}
+	}
+
+	/**
+	 * An acquired resource; close() releases it, data() must not be used afterwards.
+	 */
+	public final class Resource implements AutoCloseable {
+		private final String m_name;
+		private ByteBuffer m_data;
+
+		private Resource(String name, ByteBuffer data) {
+			m_name = name;
+			m_data = data.duplicate();	// own position and limit, shares the content
+		}
+
+		/**
+		 * @return the read-only content, position 0 and limit the size
+		 */
+		public ByteBuffer data() {
+			if (m_data == null) throw new IllegalStateException(m_name + " is released");
+			return m_data;
+		}
+
+		@Override
+		public void close() {
+			if (m_data == null) return;
+			m_data = null;
+			release(m_name);
+		}
+	}
+}
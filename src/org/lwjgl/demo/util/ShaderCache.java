@@ -0,0 +1,196 @@
+package org.lwjgl.demo.util;
+
+// https://registry.khronos.org/OpenGL/extensions/ARB/ARB_get_program_binary.txt
+
+import static org.lwjgl.opengl.GL11C.GL_RENDERER;
+import static org.lwjgl.opengl.GL11C.GL_TRUE;
+import static org.lwjgl.opengl.GL11C.GL_VENDOR;
+import static org.lwjgl.opengl.GL11C.GL_VERSION;
+import static org.lwjgl.opengl.GL11C.glGetInteger;
+import static org.lwjgl.opengl.GL11C.glGetString;
+import static org.lwjgl.opengl.GL20C.GL_LINK_STATUS;
+import static org.lwjgl.opengl.GL20C.glCreateProgram;
+import static org.lwjgl.opengl.GL20C.glDeleteProgram;
+import static org.lwjgl.opengl.GL20C.glGetProgrami;
+import static org.lwjgl.opengl.GL41C.GL_NUM_PROGRAM_BINARY_FORMATS;
+import static org.lwjgl.opengl.GL41C.GL_PROGRAM_BINARY_LENGTH;
+import static org.lwjgl.opengl.GL41C.GL_PROGRAM_BINARY_RETRIEVABLE_HINT;
+import static org.lwjgl.opengl.GL41C.glGetProgramBinary;
+import static org.lwjgl.opengl.GL41C.glProgramBinary;
+import static org.lwjgl.opengl.GL41C.glProgramParameteri;
+import static org.lwjgl.system.MemoryStack.stackPush;
+import static org.lwjgl.system.MemoryUtil.memAlloc;
+import static org.lwjgl.system.MemoryUtil.memFree;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import org.lwjgl.opengl.GLCapabilities;
+import org.lwjgl.system.MemoryStack;
+
+/**
+ * On-disk cache of linked programs (glGetProgramBinary/glProgramBinary, OpenGL 4.1 or
+ * ARB_get_program_binary), so that programs are compiled from source only on the first launch.
+ *
+ * A program is stored under the SHA-256 of its sources (including the #version header and defines)
+ * and of GL_VENDOR, GL_RENDERER and GL_VERSION; the latter contains the driver version, so a driver
+ * update never loads an old binary. The driver may still reject a binary, then load() returns 0,
+ * the file is deleted and the caller compiles from source as usual.
+ *
+ * A file holds the binary format (int) followed by the binary. Files are written to a temporary file
+ * first and moved into place, so processes sharing the directory never read partial binaries.
+ * Errors of the cache only cost compile time: they are reported and otherwise ignored.
+ */
+public class ShaderCache {
+	private static final String SUFFIX = ".bin";
+
+	private final Path m_directory;
+	private final String m_driver;		// vendor, renderer and version of the current context
+
+	public ShaderCache(Path directory) {
+		m_directory = directory;
+		m_driver = glGetString(GL_VENDOR) + "\n" + glGetString(GL_RENDERER) + "\n" + glGetString(GL_VERSION);
+	}
+
+	public static boolean isSupported(GLCapabilities caps) {
+		return (caps.OpenGL41 || caps.GL_ARB_get_program_binary) && glGetInteger(GL_NUM_PROGRAM_BINARY_FORMATS) > 0;
+	}
+
+	/**
+	 * Creates a cache in the directory ogl.shader.cache (default ~/.cache/lwjgl-demo/shaders).
+	 * @return null if the property is "false" or program binaries are not supported
+	 */
+	public static ShaderCache fromSystemProperties(GLCapabilities caps) {
+		final String directory = System.getProperty("ogl.shader.cache");
+		if ("false".equals(directory) || !isSupported(caps)) return null;
+
+		return new ShaderCache(directory != null
+			? Paths.get(directory)
+			: Paths.get(System.getProperty("user.home"), ".cache", "lwjgl-demo", "shaders"));
+	}
+
+	/**
+	 * @return key of the program linked from the shader sources with the attributes bound to their
+	 * index in attributes (null entries are not bound); the order of the sources matters
+	 */
+	public String key(CharSequence header, String[] attributes, ByteBuffer... sources) {
+		try {
+			MessageDigest sha = MessageDigest.getInstance("SHA-256");
+			sha.update(m_driver.getBytes(StandardCharsets.UTF_8));
+			sha.update(header.toString().getBytes(StandardCharsets.UTF_8));
+			for (int a = 0; a < attributes.length; a++) {
+				if (attributes[a] == null) continue;
+				sha.update((byte)1);			// separates the bindings (0 separates the sources)
+				sha.update(Integer.toString(a).getBytes(StandardCharsets.UTF_8));
+				sha.update((byte)'=');
+				sha.update(attributes[a].getBytes(StandardCharsets.UTF_8));
+			}
+			for (ByteBuffer source : sources) {
+				sha.update((byte)0);			// separates the sources
+				sha.update(source.duplicate());	// consumes the duplicate only
+			}
+
+			StringBuilder key = new StringBuilder(64);
+			for (byte b : sha.digest()) {
+				key.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+			}
+			return key.toString();
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);		// every JRE has SHA-256
+		}
+	}
+
+	/**
+	 * Loads a program stored under key.
+	 * @return the linked program, or 0 if there is none or the driver rejected it
+	 */
+	public int load(String key) {
+		final Path file = m_directory.resolve(key + SUFFIX);
+		if (!Files.isReadable(file)) return 0;
+
+		ByteBuffer data = null;
+		try (FileChannel fc = FileChannel.open(file, StandardOpenOption.READ)) {
+			data = memAlloc((int)fc.size());
+			while (data.hasRemaining() && fc.read(data) != -1) {
+				;
+			}
+			data.flip();
+			if (data.remaining() <= Integer.BYTES) {
+				delete(file);
+				return 0;
+			}
+
+			final int format = data.getInt();
+			int program = glCreateProgram();
+			glProgramBinary(program, format, data);
+			if (glGetProgrami(program, GL_LINK_STATUS) != GL_TRUE) {
+				glDeleteProgram(program);
+				delete(file);
+				return 0;
+			}
+			return program;
+		} catch (IOException e) {
+			System.err.println("Shader cache: failed to read " + file + ": " + e);
+			return 0;
+		} finally {
+			if (data != null) memFree(data);
+		}
+	}
+
+	/**
+	 * Asks the driver to keep the binary of program retrievable; call it before glLinkProgram.
+	 */
+	public void prepare(int program) {
+		glProgramParameteri(program, GL_PROGRAM_BINARY_RETRIEVABLE_HINT, GL_TRUE);
+	}
+
+	/**
+	 * Stores the binary of a linked program under key.
+	 */
+	public void store(String key, int program) {
+		final int length = glGetProgrami(program, GL_PROGRAM_BINARY_LENGTH);
+		if (length <= 0) return;
+
+		final Path file = m_directory.resolve(key + SUFFIX);
+		ByteBuffer data = memAlloc(Integer.BYTES + length);
+		Path temp = null;
+		try (MemoryStack stack = stackPush()) {
+			IntBuffer format = stack.mallocInt(1);
+			IntBuffer written = stack.mallocInt(1);
+			glGetProgramBinary(program, written, format, data.position(Integer.BYTES));
+			data.putInt(0, format.get(0)).position(0).limit(Integer.BYTES + written.get(0));
+
+			Files.createDirectories(m_directory);
+			temp = Files.createTempFile(m_directory, key, ".tmp");
+			try (FileChannel fc = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+				while (data.hasRemaining()) {
+					fc.write(data);
+				}
+			}
+			Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException e) {
+			System.err.println("Shader cache: failed to write " + file + ": " + e);
+			if (temp != null) delete(temp);
+		} finally {
+			memFree(data);
+		}
+	}
+
+	private static void delete(Path file) {
+		try {
+			Files.deleteIfExists(file);
+		} catch (IOException e) {
+			System.err.println("Shader cache: failed to delete " + file + ": " + e);
+		}
+	}
+}
@@ -0,0 +1,184 @@
+package org.lwjgl.demo.util;
+
+// https://registry.khronos.org/OpenGL/extensions/KHR/KHR_parallel_shader_compile.txt
+
+import static org.lwjgl.opengl.GL11C.GL_TRUE;
+import static org.lwjgl.opengl.GL20C.GL_COMPILE_STATUS;
+import static org.lwjgl.opengl.GL20C.GL_LINK_STATUS;
+import static org.lwjgl.opengl.GL20C.glAttachShader;
+import static org.lwjgl.opengl.GL20C.glBindAttribLocation;
+import static org.lwjgl.opengl.GL20C.glCompileShader;
+import static org.lwjgl.opengl.GL20C.glCreateProgram;
+import static org.lwjgl.opengl.GL20C.glCreateShader;
+import static org.lwjgl.opengl.GL20C.glDeleteProgram;
+import static org.lwjgl.opengl.GL20C.glDeleteShader;
+import static org.lwjgl.opengl.GL20C.glDetachShader;
+import static org.lwjgl.opengl.GL20C.glGetProgramInfoLog;
+import static org.lwjgl.opengl.GL20C.glGetProgrami;
+import static org.lwjgl.opengl.GL20C.glGetShaderInfoLog;
+import static org.lwjgl.opengl.GL20C.glGetShaderi;
+import static org.lwjgl.opengl.GL20C.glLinkProgram;
+import static org.lwjgl.opengl.GL20C.glShaderSource;
+import static org.lwjgl.opengl.KHRParallelShaderCompile.GL_COMPLETION_STATUS_KHR;
+import static org.lwjgl.system.MemoryStack.stackPush;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import org.lwjgl.PointerBuffer;
+import org.lwjgl.opengl.ARBParallelShaderCompile;
+import org.lwjgl.opengl.GLCapabilities;
+import org.lwjgl.opengl.KHRParallelShaderCompile;
+import org.lwjgl.system.MemoryStack;
+
+/**
+ * A program that is compiled and linked without waiting for the driver. submit() only issues the
+ * compile and link commands; the compile and link status, which would wait for the compiler, are
+ * checked by get() when the program is first used. In between the application can do other work,
+ * e.g. build meshes or read resources.
+ *
+ * With KHR_parallel_shader_compile (or the ARB variant) the driver compiles on its own threads and
+ * isCompleted() polls GL_COMPLETION_STATUS_KHR without blocking; without it the program is treated
+ * as completed, get() then waits for the driver as before.
+ *
+ * With a ShaderCache, a program linked by an earlier launch is loaded instead and its binary is
+ * stored after the first successful link.
+ */
+public class ShaderProgram {
+	private static boolean s_parallel;	// KHR/ARB_parallel_shader_compile enabled
+
+	private final String m_name;		// for error messages
+	private final ShaderCache m_cache;	// null without cache
+	private String m_key;				// cache key, null without cache
+	private int m_program;
+	private int[] m_shaders = new int[0];
+	private boolean m_checked;			// status checked by get()
+
+	/**
+	 * Lets the driver compile on as many threads as it likes, if KHR_parallel_shader_compile or
+	 * ARB_parallel_shader_compile is available. Call it once per context before the first submit().
+	 */
+	public static void enableParallelCompile(GLCapabilities caps) {
+		if (caps.GL_KHR_parallel_shader_compile) {
+			KHRParallelShaderCompile.glMaxShaderCompilerThreadsKHR(0xFFFFFFFF);
+			s_parallel = true;
+		} else if (caps.GL_ARB_parallel_shader_compile) {
+			ARBParallelShaderCompile.glMaxShaderCompilerThreadsARB(0xFFFFFFFF);
+			s_parallel = true;
+		} else {
+			s_parallel = false;
+		}
+	}
+
+	public ShaderProgram(String name, ShaderCache cache) {
+		m_name = name;
+		m_cache = cache;
+	}
+
+	/**
+	 * Loads the program from the cache or submits its shaders for compilation and linking.
+	 * @param header	first line(s) of every shader, e.g. "#version 330\n" and defines
+	 * @param attributes	attribute names, bound to their index in this array (null entries are skipped)
+	 * @param types		shader types, e.g. GL_VERTEX_SHADER
+	 * @param sources	sources per shader type; all but the last are prepended (e.g. common blocks)
+	 */
+	public ShaderProgram submit(String header, String[] attributes, int[] types, ByteBuffer[]... sources) {
+		if (m_cache != null) {
+			ByteBuffer[] all = Arrays.stream(sources).flatMap(Arrays::stream).toArray(ByteBuffer[]::new);
+			m_key = m_cache.key(header, attributes, all);
+			m_program = m_cache.load(m_key);
+			if (m_program != 0) {
+				m_checked = true;
+				return this;
+			}
+		}
+
+		m_program = glCreateProgram();
+		m_shaders = new int[types.length];
+		for (int i = 0; i < types.length; i++) {
+			m_shaders[i] = glCreateShader(types[i]);
+			shaderSource(m_shaders[i], header, sources[i]);
+			glCompileShader(m_shaders[i]);
+			glAttachShader(m_program, m_shaders[i]);
+		}
+		for (int a = 0; a < attributes.length; a++) {
+			if (attributes[a] != null) glBindAttribLocation(m_program, a, attributes[a]);
+		}
+		if (m_cache != null) m_cache.prepare(m_program);
+		glLinkProgram(m_program);
+		return this;
+	}
+
+	/**
+	 * @return true if get() does not wait for the driver
+	 */
+	public boolean isCompleted() {
+		return m_checked || !s_parallel || glGetProgrami(m_program, GL_COMPLETION_STATUS_KHR) == GL_TRUE;
+	}
+
+	/**
+	 * Checks the compile and link status on the first call, waiting for the driver if necessary.
+	 * @return the linked program
+	 * @throws IllegalStateException if a shader does not compile or the program does not link
+	 */
+	public int get() {
+		if (m_checked) return m_program;
+		m_checked = true;
+
+		for (int shader : m_shaders) {
+			if (glGetShaderi(shader, GL_COMPILE_STATUS) != GL_TRUE) {
+				final String log = glGetShaderInfoLog(shader);
+				free();
+				throw new IllegalStateException("Failed to compile shader of " + m_name + ":\n" + log);
+			}
+		}
+		if (glGetProgrami(m_program, GL_LINK_STATUS) != GL_TRUE) {
+			final String log = glGetProgramInfoLog(m_program);
+			free();
+			throw new IllegalStateException("Failed to link " + m_name + ":\n" + log);
+		}
+
+		// the linked program keeps the executable, the shaders are no longer needed
+		for (int shader : m_shaders) {
+			glDetachShader(m_program, shader);
+			glDeleteShader(shader);
+		}
+		m_shaders = new int[0];
+
+		if (m_cache != null) m_cache.store(m_key, m_program);
+		return m_program;
+	}
+
+	public void free() {
+		for (int shader : m_shaders) {
+			glDeleteShader(shader);
+		}
+		m_shaders = new int[0];
+		if (m_program != 0) glDeleteProgram(m_program);
+		m_program = 0;
+	}
+
+	private static void shaderSource(int shader, String header, ByteBuffer[] sources) {
+		try (MemoryStack stack = stackPush()) {
+			// the line numbers in error messages refer to the last source
+			ByteBuffer version = stack.ASCII(header, false);
+			ByteBuffer line = stack.ASCII("#line 0\n", false);
+
+			final int n = sources.length;
+			PointerBuffer strings = stack.mallocPointer(n + 2);
+			int[] lengths = new int[n + 2];
+			strings.put(0, version);
+			lengths[0] = version.remaining();
+			for (int i = 0; i < n - 1; i++) {
+				strings.put(i + 1, sources[i]);
+				lengths[i + 1] = sources[i].remaining();
+			}
+			strings.put(n, line);
+			lengths[n] = line.remaining();
+			strings.put(n + 1, sources[n - 1]);
+			lengths[n + 1] = sources[n - 1].remaining();
+
+			glShaderSource(shader, strings, stack.ints(lengths));
+		}
+	}
+}
@@ -0,0 +1,151 @@
+package org.lwjgl.demo.util;
+
+// https://www.khronos.org/opengl/wiki/Vertex_Specification_Best_Practices
+
+import static org.lwjgl.opengl.GL11C.GL_FLOAT;
+import static org.lwjgl.opengl.GL11C.GL_SHORT;
+import static org.lwjgl.opengl.GL30C.GL_HALF_FLOAT;
+import static org.lwjgl.opengl.GL33C.GL_INT_2_10_10_10_REV;
+
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.util.Locale;
+
+import org.lwjgl.opengl.GLCapabilities;
+
+/**
+ * Memory layout of the vertex positions and normals of an OGLObject.
+ *
+ * Except for SEPARATE, all attributes of a vertex are interleaved in one buffer. Packed normals
+ * use GL_INT_2_10_10_10_REV (4 instead of 12 bytes), which is precise enough for shading because
+ * the shaders normalize the transformed normal anyway. SNORM16 positions are divided by the
+ * largest absolute coordinate of the object and scaled back in the vertex shader (u_POSITION_SCALE).
+ */
+public enum VertexLayout {
+	// stride, position type and bytes, normalized positions, normal offset, type and size
+	SEPARATE(0, GL_FLOAT, 12, false, 0, GL_FLOAT, 3),							// 24 bytes in two buffers
+	INTERLEAVED(24, GL_FLOAT, 12, false, 12, GL_FLOAT, 3),						// 24 bytes
+	PACKED_NORMALS(16, GL_FLOAT, 12, false, 12, GL_INT_2_10_10_10_REV, 4),		// 16 bytes
+	HALF_POSITIONS(12, GL_HALF_FLOAT, 6, false, 8, GL_INT_2_10_10_10_REV, 4),	// 12 bytes
+	SNORM16_POSITIONS(12, GL_SHORT, 6, true, 8, GL_INT_2_10_10_10_REV, 4);		// 12 bytes
+
+	/** layout used by new objects, set with -Dogl.vertex.layout=<name> */
+	public static final VertexLayout DEFAULT = valueOf(System.getProperty("ogl.vertex.layout", PACKED_NORMALS.name()).toUpperCase(Locale.ROOT));
+
+	public final int stride;			// bytes per vertex (0 for SEPARATE: tightly packed buffers)
+	public final int positionType;
+	public final int positionBytes;		// bytes of the three position components
+	public final boolean positionNormalized;
+	public final int normalOffset;		// byte offset of the normal within a vertex
+	public final int normalType;
+	public final int normalSize;		// number of normal components (4 for packed normals, w is unused)
+
+	private VertexLayout(int stride, int positionType, int positionBytes, boolean positionNormalized, int normalOffset, int normalType, int normalSize) {
+		this.stride = stride;
+		this.positionType = positionType;
+		this.positionBytes = positionBytes;
+		this.positionNormalized = positionNormalized;
+		this.normalOffset = normalOffset;
+		this.normalType = normalType;
+		this.normalSize = normalSize;
+	}
+
+	/**
+	 * @return bytes per vertex in video memory
+	 */
+	public int getVertexBytes() {
+		return (stride == 0) ? 24 : stride;
+	}
+
+	public boolean isSupported(GLCapabilities caps) {
+		if (normalType == GL_INT_2_10_10_10_REV && !caps.OpenGL33 && !caps.GL_ARB_vertex_type_2_10_10_10_rev) return false;
+		if (positionType == GL_HALF_FLOAT && !caps.OpenGL30 && !caps.GL_ARB_half_float_vertex) return false;
+		return true;
+	}
+
+	/**
+	 * Encodes count vertices of the float positions and normals (3 floats each) into dest.
+	 * Not used for SEPARATE.
+	 *
+	 * @param scale positions are divided by this value (only SNORM16_POSITIONS)
+	 */
+	public void encode(FloatBuffer positions, FloatBuffer normals, int count, float scale, ByteBuffer dest) {
+		final float invScale = 1/scale;
+
+		for (int i = 0; i < count; i++) {
+			final int v = i*stride;
+			final int c = i*3;
+
+			switch (this) {
+			case INTERLEAVED:
+			case PACKED_NORMALS:
+				dest.putFloat(v + 0, positions.get(c + 0));
+				dest.putFloat(v + 4, positions.get(c + 1));
+				dest.putFloat(v + 8, positions.get(c + 2));
+				break;
+			case HALF_POSITIONS:
+				dest.putShort(v + 0, toHalf(positions.get(c + 0)));
+				dest.putShort(v + 2, toHalf(positions.get(c + 1)));
+				dest.putShort(v + 4, toHalf(positions.get(c + 2)));
+				dest.putShort(v + 6, (short)0);
+				break;
+			case SNORM16_POSITIONS:
+				dest.putShort(v + 0, toSnorm16(positions.get(c + 0)*invScale));
+				dest.putShort(v + 2, toSnorm16(positions.get(c + 1)*invScale));
+				dest.putShort(v + 4, toSnorm16(positions.get(c + 2)*invScale));
+				dest.putShort(v + 6, (short)0);
+				break;
+			default:
+				throw new IllegalStateException(name() + " is not interleaved");
+			}
+
+			if (normalType == GL_FLOAT) {
+				dest.putFloat(v + normalOffset + 0, normals.get(c + 0));
+				dest.putFloat(v + normalOffset + 4, normals.get(c + 1));
+				dest.putFloat(v + normalOffset + 8, normals.get(c + 2));
+			} else {
+				dest.putInt(v + normalOffset, packNormal(normals.get(c + 0), normals.get(c + 1), normals.get(c + 2)));
+			}
+		}
+	}
+
+	/**
+	 * Packs a unit vector into signed normalized 10:10:10:2 bits (x in the lowest bits, w = 0).
+	 */
+	public static int packNormal(float x, float y, float z) {
+		return (toSnorm10(x) & 0x3FF) | (toSnorm10(y) & 0x3FF) << 10 | (toSnorm10(z) & 0x3FF) << 20;
+	}
+
+	/**
+	 * Converts to IEEE 754 half precision, rounding to nearest. Overflow gives infinity, tiny values become subnormal or zero.
+	 */
+	public static short toHalf(float f) {
+		final int bits = Float.floatToRawIntBits(f);
+		final int sign = (bits >>> 16) & 0x8000;
+		final int exponent = ((bits >>> 23) & 0xFF) - 127 + 15;
+		int mantissa = bits & 0x7FFFFF;
+
+		if (exponent >= 0x1F) {
+			// overflow, infinity or NaN
+			final boolean nan = ((bits >>> 23) & 0xFF) == 0xFF && mantissa != 0;
+			return (short)(sign | 0x7C00 | (nan ? 0x200 : 0));
+		}
+		if (exponent <= 0) {
+			// subnormal or zero
+			if (exponent < -10) return (short)sign;
+			mantissa |= 0x800000;
+			final int shift = 14 - exponent;
+			return (short)(sign | ((mantissa + (1 << (shift - 1))) >> shift));
+		}
+		// rounding may carry into the exponent, which is correct (up to infinity)
+		return (short)((sign | exponent << 10 | mantissa >> 13) + ((mantissa >> 12) & 1));
+	}
+
+	private static short toSnorm16(float v) {
+		return (short)Math.round(Math.max(-1, Math.min(1, v))*32767);
+	}
+
+	private static int toSnorm10(float v) {
+		return Math.round(Math.max(-1, Math.min(1, v))*511);
+	}
+}
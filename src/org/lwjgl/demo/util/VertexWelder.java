@@ -0,0 +1,214 @@
+package org.lwjgl.demo.util;
+
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+
+/**
+ * Welds vertices and generates smooth normals with a spatial hash: positions are quantized to
+ * cells of the size of the position tolerance, so vertices closer than the tolerance (per
+ * coordinate) are found in the same or a neighboring cell. The hash is open-addressed over
+ * primitive arrays and reused across calls, so welding and smoothing do not allocate once the
+ * arrays are large enough.
+ *
+ * The position tolerance is relative: epsilon times the largest extent of the bounding box of the
+ * processed vertices, but at least half a float step (ulp) of the largest coordinate, where only
+ * equal coordinates are left to merge. So meshes in any unit and at any distance from the origin
+ * are welded alike, and the cells never exceed the int range. Normals, being unit vectors, are
+ * compared with epsilon itself.
+ *
+ * Positions and normals hold 3 floats per vertex (see MeshBuilder). A welder is not thread-safe.
+ */
+public class VertexWelder {
+	public static final float DEFAULT_EPSILON = 1e-5f;	// relative to the size of the mesh
+	private static final float MIN_ULPS = 0.5f;	// least position tolerance, in ulps of the largest coordinate
+
+	private final float m_epsilon;
+	private float m_tolerance;		// of the positions in the current call
+	private float m_invCellSize;
+
+	// hash table: quantized cell -> first vertex in the cell, the others are chained through m_next
+	private int[] m_cellX = new int[0], m_cellY = new int[0], m_cellZ = new int[0];
+	private int[] m_heads = new int[0];
+	private int[] m_next = new int[0];
+	private int m_mask;
+	private int m_base;		// first vertex of the hashed range, vertex v is chained in m_next[v - m_base]
+	private float[] m_normals = new float[0];	// original normals while smoothing
+
+	/**
+	 * @param epsilon	position tolerance relative to the size of the meshes, and normal tolerance
+	 */
+	public VertexWelder(float epsilon) {
+		m_epsilon = epsilon;
+	}
+
+	/**
+	 * Merges vertices whose positions differ by at most the position tolerance and whose normals
+	 * differ by at most epsilon per coordinate. Afterwards indices holds count indices into the
+	 * welded vertices.
+	 * @return number of welded vertices, they are moved to the front of positions and normals
+	 */
+	public int weld(FloatBuffer positions, FloatBuffer normals, int count, IntBuffer indices) {
+		setTolerance(positions, 0, count);
+		clear(0, count);
+
+		int uniqueCount = 0;
+		for (int i = 0; i < count; i++) {
+			int unique = find(positions, normals, i);
+			if (unique < 0) {
+				// new vertex: uniqueCount <= i, so no vertex still to be read is overwritten
+				unique = uniqueCount++;
+				copy(positions, i, unique);
+				copy(normals, i, unique);
+				insert(positions, unique);
+			}
+			indices.put(i, unique);
+		}
+		return uniqueCount;
+	}
+
+	/**
+	 * Replaces the normals of the vertices first .. first + count - 1 by the normalized sum of the
+	 * normals of all vertices in this range at the same position (within the tolerance), but only of
+	 * those whose normals enclose at most maxAngle degrees with the vertex's own normal.
+	 * A maxAngle of 180 smooths across all edges, like glShadeModel(GL_SMOOTH).
+	 */
+	public void smoothNormals(FloatBuffer positions, FloatBuffer normals, int first, int count, double maxAngle) {
+		final float minCos = (maxAngle >= 180) ? -2 : (float)Math.cos(Math.toRadians(maxAngle));
+
+		setTolerance(positions, first, count);
+		clear(first, count);
+		if (m_normals.length < count*3) m_normals = new float[count*3];
+		normals.get(first*3, m_normals, 0, count*3);
+		for (int i = first; i < first + count; i++) {
+			insert(positions, i);
+		}
+
+		for (int i = first; i < first + count; i++) {
+			final int n = (i - first)*3;
+			final float nx = m_normals[n], ny = m_normals[n + 1], nz = m_normals[n + 2];
+			float sx = 0, sy = 0, sz = 0;
+
+			final int cx = cell(positions.get(i*3)), cy = cell(positions.get(i*3 + 1)), cz = cell(positions.get(i*3 + 2));
+			for (int dx = -1; dx <= 1; dx++) {
+				for (int dy = -1; dy <= 1; dy++) {
+					for (int dz = -1; dz <= 1; dz++) {
+						for (int w = m_heads[slot(cx + dx, cy + dy, cz + dz)]; w >= 0; w = m_next[w - m_base]) {
+							if (!near(positions, i, w, m_tolerance)) continue;
+
+							final int m = (w - first)*3;
+							final float mx = m_normals[m], my = m_normals[m + 1], mz = m_normals[m + 2];
+							if (nx*mx + ny*my + nz*mz >= minCos*length(nx, ny, nz)*length(mx, my, mz)) {
+								sx += mx;
+								sy += my;
+								sz += mz;
+							}
+						}
+					}
+				}
+			}
+
+			final float len = length(sx, sy, sz);
+			if (len > 0) {
+				normals.put(i*3 + 0, sx/len);
+				normals.put(i*3 + 1, sy/len);
+				normals.put(i*3 + 2, sz/len);
+			}
+		}
+	}
+
+	// sets the position tolerance and the cell size for count vertices starting at first
+	private void setTolerance(FloatBuffer positions, int first, int count) {
+		float extent = 0, maxAbs = 0;
+		for (int c = 0; c < 3; c++) {
+			float min = Float.POSITIVE_INFINITY, max = Float.NEGATIVE_INFINITY;
+			for (int i = first; i < first + count; i++) {
+				final float coordinate = positions.get(i*3 + c);
+				min = Math.min(min, coordinate);
+				max = Math.max(max, coordinate);
+			}
+			if (count > 0) {
+				extent = Math.max(extent, max - min);
+				maxAbs = Math.max(maxAbs, Math.max(-min, max));
+			}
+		}
+		m_tolerance = Math.max(Float.MIN_NORMAL, Math.max(m_epsilon*extent, MIN_ULPS*Math.ulp(maxAbs)));
+		m_invCellSize = 1/m_tolerance;
+	}
+
+	// prepares the hash for count vertices starting at first, with a load factor of at most 0.5
+	private void clear(int first, int count) {
+		final int size = Math.max(16, Integer.highestOneBit(Math.max(1, count)*2 - 1) << 1);
+		if (m_heads.length < size) {
+			m_cellX = new int[size];
+			m_cellY = new int[size];
+			m_cellZ = new int[size];
+			m_heads = new int[size];
+		}
+		if (m_next.length < count) m_next = new int[count];
+		m_mask = size - 1;
+		m_base = first;
+		Arrays.fill(m_heads, 0, size, -1);
+	}
+
+	private void insert(FloatBuffer positions, int v) {
+		final int cx = cell(positions.get(v*3)), cy = cell(positions.get(v*3 + 1)), cz = cell(positions.get(v*3 + 2));
+		final int slot = slot(cx, cy, cz);
+		if (m_heads[slot] < 0) {
+			m_cellX[slot] = cx;
+			m_cellY[slot] = cy;
+			m_cellZ[slot] = cz;
+		}
+		m_next[v - m_base] = m_heads[slot];
+		m_heads[slot] = v;
+	}
+
+	/**
+	 * @return an already inserted vertex near vertex v, or -1
+	 */
+	private int find(FloatBuffer positions, FloatBuffer normals, int v) {
+		final int cx = cell(positions.get(v*3)), cy = cell(positions.get(v*3 + 1)), cz = cell(positions.get(v*3 + 2));
+		for (int dx = -1; dx <= 1; dx++) {
+			for (int dy = -1; dy <= 1; dy++) {
+				for (int dz = -1; dz <= 1; dz++) {
+					for (int w = m_heads[slot(cx + dx, cy + dy, cz + dz)]; w >= 0; w = m_next[w - m_base]) {
+						if (near(positions, v, w, m_tolerance) && near(normals, v, w, m_epsilon)) return w;
+					}
+				}
+			}
+		}
+		return -1;
+	}
+
+	// slot of a cell: linear probing until the cell or a free slot is found
+	private int slot(int cx, int cy, int cz) {
+		int slot = (cx*73856093 ^ cy*19349663 ^ cz*83492791) & m_mask;
+		while (m_heads[slot] >= 0 && (m_cellX[slot] != cx || m_cellY[slot] != cy || m_cellZ[slot] != cz)) {
+			slot = (slot + 1) & m_mask;
+		}
+		return slot;
+	}
+
+	// |coordinate|/tolerance is at most 2^24/MIN_ULPS, so the cells of finite coordinates fit an int
+	private int cell(float coordinate) {
+		return (int)Math.floor(coordinate*m_invCellSize);
+	}
+
+	private static boolean near(FloatBuffer buffer, int v, int w, float tolerance) {
+		for (int c = 0; c < 3; c++) {
+			if (Math.abs(buffer.get(v*3 + c) - buffer.get(w*3 + c)) > tolerance) return false;
+		}
+		return true;
+	}
+
+	private static float length(float x, float y, float z) {
+		return (float)Math.sqrt(x*x + y*y + z*z);
+	}
+
+	private static void copy(FloatBuffer buffer, int from, int to) {
+		if (from == to) return;
+		buffer.put(to*3 + 0, buffer.get(from*3 + 0));
+		buffer.put(to*3 + 1, buffer.get(from*3 + 1));
+		buffer.put(to*3 + 2, buffer.get(from*3 + 2));
+	}
+}